@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("xyz.jpenilla.run-paper") version "2.3.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "me.craftinators"
@@ -28,6 +29,36 @@ dependencies {
 
     compileOnly("io.papermc.paper:paper-api:${minecraftServerVersion}-R0.1-SNAPSHOT")
     compileOnly("com.comphenix.protocol:ProtocolLib:${protocolLibVersion}")
+
+    // The benchmarks run outside a server, so the APIs provided by the server are needed on their classpath
+    jmh("io.papermc.paper:paper-api:${minecraftServerVersion}-R0.1-SNAPSHOT")
+    jmh("com.comphenix.protocol:ProtocolLib:${protocolLibVersion}")
+
+    // The tests run outside a server as well
+    testImplementation("io.papermc.paper:paper-api:${minecraftServerVersion}-R0.1-SNAPSHOT")
+    testImplementation("com.comphenix.protocol:ProtocolLib:${protocolLibVersion}")
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation("org.mockito:mockito-core:5.14.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    resultFormat.set("JSON") // Results can be compared between releases
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
+
+// Runs the headless simulator, e.g. ./gradlew simulate -PsimulationArgs="--runs=100000 --reductions=0.3,0.5,0.7"
+tasks.register<JavaExec>("simulate") {
+    group = "application"
+    description = "Runs the headless monster selection and job balancing simulator."
+    classpath = sourceSets.main.get().runtimeClasspath + sourceSets.main.get().compileClasspath
+    mainClass.set("me.craftinators.barium.simulation.Simulator")
+    (findProperty("simulationArgs") as String?)?.let { args(it.split(' ').filter(String::isNotBlank)) }
 }
 
 val externalPlugins = runPaper.downloadPluginsSpec {
@@ -0,0 +1,60 @@
+package me.craftinators.barium.benchmark;
+
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.JobTransfer;
+import me.craftinators.barium.core.Match;
+import me.craftinators.barium.core.WrappedPlayer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceJobsBenchmark {
+    private static final Job[] JOBS = Job.values();
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int playerCount;
+
+    private Match match;
+    private WrappedPlayer[] players;
+    private Job[] skewedJobs;
+
+    @Setup(Level.Trial)
+    public void createMatch() {
+        match = new Match(LocalServer.plugin()) {};
+        players = new WrappedPlayer[playerCount];
+        skewedJobs = new Job[playerCount];
+
+        // Each job holds roughly half as many players as the one before it, with the rest in the last job
+        Random random = new Random(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            int ordinal = 0;
+            while (ordinal < JOBS.length - 1 && random.nextBoolean()) ordinal++;
+            skewedJobs[i] = JOBS[ordinal];
+
+            players[i] = new BenchmarkPlayer(new UUID(random.nextLong(), random.nextLong()), skewedJobs[i]);
+            match.addPlayer(players[i]);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void skewJobs() {
+        // Undo the previous balancing so that every invocation starts from the same distribution
+        for (int i = 0; i < playerCount; i++) {
+            match.transferPlayer(players[i], skewedJobs[i]);
+        }
+    }
+
+    @Benchmark
+    public Map<WrappedPlayer, JobTransfer> balanceJobs() {
+        return match.balanceJobs();
+    }
+}
@@ -0,0 +1,15 @@
+package me.craftinators.barium.benchmark;
+
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.WrappedPlayer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+final class BenchmarkPlayer extends WrappedPlayer {
+    BenchmarkPlayer(@NotNull UUID uuid, @NotNull Job job) {
+        // The plugin is only needed to look up the online player, which none of the benchmarks do
+        //noinspection DataFlowIssue
+        super(null, uuid, job);
+    }
+}
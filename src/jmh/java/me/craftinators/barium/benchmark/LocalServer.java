@@ -0,0 +1,96 @@
+package me.craftinators.barium.benchmark;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * A lightweight local stand-in for the parts of a {@link Server} the benchmarked code touches. Every interface is
+ * implemented by a {@link Proxy} that answers the few calls that matter and returns a default value for everything else,
+ * so that events are dispatched to nobody and heads are built without a running server.
+ */
+final class LocalServer {
+    private static final Logger LOGGER = Logger.getLogger("Barium-Benchmark");
+
+    private static final PluginManager PLUGIN_MANAGER = stub(PluginManager.class, Map.of());
+    private static final SkullMeta SKULL_META = stub(SkullMeta.class, Map.of());
+    private static final ItemFactory ITEM_FACTORY = stub(ItemFactory.class, Map.of(
+            "getItemMeta", arguments -> SKULL_META,
+            "asMetaFor", arguments -> arguments[0],
+            "isApplicable", arguments -> true
+    ));
+    private static final Server SERVER = stub(Server.class, Map.of(
+            "getPluginManager", arguments -> PLUGIN_MANAGER,
+            "getItemFactory", arguments -> ITEM_FACTORY,
+            "createProfile", arguments -> stub(PlayerProfile.class, Map.of()),
+            "getLogger", arguments -> LOGGER,
+            "isPrimaryThread", arguments -> true
+    ));
+    private static final Plugin PLUGIN = stub(Plugin.class, Map.of(
+            "getServer", arguments -> SERVER,
+            "getLogger", arguments -> LOGGER,
+            "getName", arguments -> "Barium"
+    ));
+
+    private LocalServer() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    /**
+     * Gets a plugin whose server is the local stand-in.
+     * @return The stand-in plugin
+     */
+    static @NotNull Plugin plugin() {
+        return PLUGIN;
+    }
+
+    /**
+     * Installs the local stand-in as the {@link Bukkit} server, for code that goes through the static accessors.
+     */
+    static synchronized void install() {
+        if (Bukkit.getServer() == null) Bukkit.setServer(SERVER);
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(Object[] arguments);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> @NotNull T stub(@NotNull Class<T> type, @NotNull Map<String, Answer> answers) {
+        InvocationHandler handler = (proxy, method, arguments) -> switch (method.getName()) {
+            case "equals" -> proxy == arguments[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "Local" + type.getSimpleName();
+            case "clone" -> proxy;
+            default -> {
+                Answer answer = answers.get(method.getName());
+                if (answer != null) yield answer.answer(arguments);
+                yield defaultValue(method.getReturnType());
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object defaultValue(@NotNull Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        if (type == long.class) return 0L;
+        if (type == int.class) return 0;
+        if (type == short.class) return (short) 0;
+        return (byte) 0;
+    }
+}
@@ -0,0 +1,34 @@
+package me.craftinators.barium.benchmark;
+
+import me.craftinators.barium.core.monster.Monster;
+import me.craftinators.barium.core.monster.MonsterSelector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonsterSelectorBenchmark {
+    @Param({ "0", "100", "10000" })
+    public int priorSelections;
+
+    private MonsterSelector selector;
+
+    @Setup(Level.Trial)
+    public void createSelector() {
+        selector = new MonsterSelector(new Random(priorSelections));
+        for (int i = 0; i < priorSelections; i++) {
+            selector.selectMonster();
+        }
+    }
+
+    @Benchmark
+    public Monster selectMonster() {
+        return selector.selectMonster();
+    }
+}
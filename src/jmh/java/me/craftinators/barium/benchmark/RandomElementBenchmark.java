@@ -0,0 +1,42 @@
+package me.craftinators.barium.benchmark;
+
+import me.craftinators.barium.Utility;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomElementBenchmark {
+    @Param({ "10", "1000", "100000" })
+    public int size;
+
+    private final Random random = new Random(0);
+    private Set<Integer> hashSet;
+    private List<Integer> arrayList;
+
+    @Setup(Level.Trial)
+    public void createCollections() {
+        hashSet = new HashSet<>();
+        arrayList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            hashSet.add(i);
+            arrayList.add(i);
+        }
+    }
+
+    @Benchmark
+    public Integer hashSet() {
+        return Utility.getRandomElement(hashSet, random);
+    }
+
+    @Benchmark
+    public Integer arrayList() {
+        return Utility.getRandomElement(arrayList, random);
+    }
+}
@@ -0,0 +1,51 @@
+package me.craftinators.barium.benchmark;
+
+import me.craftinators.barium.Base64;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TexturedHeadBenchmark {
+    private static final String TEXTURE_URL_PREFIX = "http://textures.minecraft.net/texture/";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final char[] textureHash = new char[64];
+    private long missCounter = 0;
+
+    private String cachedTexture;
+
+    @Setup(Level.Trial)
+    public void installServer() {
+        LocalServer.install();
+
+        cachedTexture = nextUnseenTexture();
+        Base64.getTexturedHead(cachedTexture);
+    }
+
+    @Benchmark
+    public ItemStack cacheHit() {
+        return Base64.getTexturedHead(cachedTexture);
+    }
+
+    @Benchmark
+    public ItemStack cacheMiss() {
+        return Base64.getTexturedHead(nextUnseenTexture());
+    }
+
+    private String nextUnseenTexture() {
+        // Every texture hash is unique for the lifetime of the fork, so it is never found in any cache
+        long value = missCounter++;
+        for (int i = textureHash.length - 1; i >= 0; i--) {
+            textureHash[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return TEXTURE_URL_PREFIX + new String(textureHash);
+    }
+}
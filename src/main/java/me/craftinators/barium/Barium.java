@@ -2,31 +2,194 @@ package me.craftinators.barium;
 
 import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.ProtocolManager;
+import me.craftinators.barium.core.MatchManager;
+import me.craftinators.barium.core.PlayerHandleListener;
+import me.craftinators.barium.core.PlayerIds;
+import me.craftinators.barium.core.monster.MonsterRegistry;
+import me.craftinators.barium.core.monster.MonsterTable;
+import me.craftinators.barium.core.tick.TickClock;
+import me.craftinators.barium.core.tick.TickEngine;
+import me.craftinators.barium.event.LoadEvents;
+import me.craftinators.barium.event.Subscription;
+import me.craftinators.barium.journal.Journal;
+import me.craftinators.barium.journal.JournalSettings;
+import me.craftinators.barium.load.LoadController;
+import me.craftinators.barium.load.TickTimeSource;
+import me.craftinators.barium.metrics.Metrics;
+import me.craftinators.barium.packet.PacketBroadcaster;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.logging.Level;
 
 public final class Barium extends JavaPlugin {
+    private static final String TEXTURE_CATALOG_FILE = "textures.catalog";
+    private static final long TEXTURE_CATALOG_FLUSH_PERIOD = 20L * 30L; // 30 seconds
+    private static final int MATCH_SHARD_COUNT = 4;
+    private static final String MONSTERS_SECTION = "monsters";
+    private static final String JOURNAL_DIRECTORY = "journal";
+    private static final String METRICS_FILE = "metrics.txt";
+    private static final long METRICS_DUMP_PERIOD = 20L * 60L * 5L; // 5 minutes
+
     private ProtocolManager protocolManager;
+    private TextureCatalog textureCatalog;
+    private MatchManager matchManager;
+    private TickEngine tickEngine;
+    private PacketBroadcaster packetBroadcaster;
+    private Journal journal;
+    private LoadController loadController;
+    private Subscription loadLevelSubscription;
 
     @Override
     public void onLoad() {
         // Plugin load logic
         protocolManager = ProtocolLibrary.getProtocolManager();
+
+        try {
+            Files.createDirectories(getDataFolder().toPath());
+            textureCatalog = TextureCatalog.open(getDataFolder().toPath().resolve(TEXTURE_CATALOG_FILE));
+            Base64.setTextureCatalog(textureCatalog);
+        } catch (IOException exception) {
+            getLogger().log(Level.WARNING, "Could not open the texture catalog, head UUIDs will change on restart.", exception);
+        }
     }
 
     @Override
     public void onEnable() {
         // Plugin startup logic
+        saveDefaultConfig();
+        try {
+            loadMonsterTable();
+        } catch (IllegalArgumentException exception) {
+            getLogger().log(Level.WARNING, "Invalid monster roster in the config, using the default roster.", exception);
+        }
+
+        getServer().getPluginManager().registerEvents(new PlayerHandleListener(), this);
+        // Players that are already online, for example after a reload, never fire the join the listener relies on
+        for (Player player : getServer().getOnlinePlayers()) {
+            PlayerIds.acquire(player.getUniqueId());
+        }
+
+        final BariumCommand bariumCommand = new BariumCommand(this);
+        final PluginCommand command = getCommand("barium");
+        if (command != null) {
+            command.setExecutor(bariumCommand);
+            command.setTabCompleter(bariumCommand);
+        }
+
+        matchManager = new MatchManager(MATCH_SHARD_COUNT);
+        try {
+            journal = Journal.open(getDataFolder().toPath().resolve(JOURNAL_DIRECTORY), JournalSettings.DEFAULT, getLogger());
+            matchManager.setJournal(journal);
+        } catch (IOException exception) {
+            getLogger().log(Level.WARNING, "Could not open the journal, job transfers and match outcomes are not recorded.", exception);
+        }
+        tickEngine = new TickEngine(TickClock.SYSTEM, getLogger());
+        tickEngine.setOverrunHandler(report -> getLogger().fine(() -> "Tick " + report.tick() + " took "
+                + report.usedNanos() / 1_000L + "us of its " + report.budgetNanos() / 1_000L + "us budget, "
+                + report.tasksPending() + " tasks carried over."));
+        loadController = new LoadController(TickTimeSource.of(getServer()));
+        loadController.install();
+        loadLevelSubscription = LoadEvents.LEVEL_CHANGED.subscribe(event -> {
+            tickEngine.setBudgetNanos(event.newLevel().scaleTickBudget(TickEngine.DEFAULT_BUDGET_NANOS));
+            getLogger().info(() -> "Server ticks take " + String.format("%.1f", event.averageTickTime())
+                    + "ms, load level changed from " + event.oldLevel() + " to " + event.newLevel() + ".");
+        });
+        // Registered first, so that everything else sees a new level on the same tick
+        tickEngine.register(loadController);
+        tickEngine.register(matchManager);
+        packetBroadcaster = new PacketBroadcaster(protocolManager);
+        tickEngine.register(packetBroadcaster);
+        getServer().getScheduler().runTaskTimer(this, tickEngine, 1L, 1L);
+
+        if (textureCatalog != null) {
+            // Appends are only synced here and on close, so that the main thread never waits for the disk
+            getServer().getScheduler().runTaskTimerAsynchronously(this, textureCatalog::flush,
+                    TEXTURE_CATALOG_FLUSH_PERIOD, TEXTURE_CATALOG_FLUSH_PERIOD);
+        }
+
+        getServer().getScheduler().runTaskTimerAsynchronously(this, this::writeMetrics, METRICS_DUMP_PERIOD, METRICS_DUMP_PERIOD);
     }
 
     @Override
     public void onDisable() {
         // Plugin shutdown logic
+        writeMetrics();
+        // Releases the reference the listener holds for every online player, whether taken on join or on enable
+        for (Player player : getServer().getOnlinePlayers()) {
+            PlayerIds.release(player.getUniqueId());
+        }
+        if (loadController != null) {
+            loadLevelSubscription.unsubscribe();
+            loadController.uninstall();
+        }
+        if (journal != null) {
+            matchManager.setJournal(null);
+            journal.close();
+        }
+
+        if (textureCatalog != null) {
+            Base64.setTextureCatalog(null);
+            try {
+                textureCatalog.close();
+            } catch (IOException exception) {
+                getLogger().log(Level.WARNING, "Could not close the texture catalog.", exception);
+            }
+        }
+    }
+
+    /**
+     * Reloads the config and replaces the monster roster in use with the one from the config. Selectors pick up the new
+     * roster on their next selection.
+     * @throws IllegalArgumentException If the roster in the config is invalid, in which case the roster in use is kept
+     */
+    public void reloadMonsterTable() {
+        reloadConfig();
+        loadMonsterTable();
+    }
 
+    private void loadMonsterTable() {
+        final ConfigurationSection section = getConfig().getConfigurationSection(MONSTERS_SECTION);
+        MonsterRegistry.setTable(section == null ? MonsterTable.DEFAULT : MonsterTable.fromConfig(section));
+    }
+
+    private void writeMetrics() {
+        try {
+            Metrics.writeReport(getDataFolder().toPath().resolve(METRICS_FILE));
+        } catch (IOException exception) {
+            getLogger().log(Level.WARNING, "Could not write the metrics report.", exception);
+        }
     }
 
     // Should never be null because it should be impossible to call this method before the plugin is loaded!
     public @NotNull ProtocolManager getProtocolManager() {
         return protocolManager;
     }
+
+    public @NotNull MatchManager getMatchManager() {
+        return matchManager;
+    }
+
+    public @NotNull TickEngine getTickEngine() {
+        return tickEngine;
+    }
+
+    public @NotNull PacketBroadcaster getPacketBroadcaster() {
+        return packetBroadcaster;
+    }
+
+    public @NotNull LoadController getLoadController() {
+        return loadController;
+    }
+
+    // Null if the journal could not be opened
+    public @Nullable Journal getJournal() {
+        return journal;
+    }
 }
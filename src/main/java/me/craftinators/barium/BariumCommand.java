@@ -0,0 +1,77 @@
+package me.craftinators.barium;
+
+import me.craftinators.barium.load.LoadController;
+import me.craftinators.barium.metrics.Metrics;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Handles the {@code /barium} command.
+ */
+final class BariumCommand implements CommandExecutor, TabCompleter {
+    private static final String STATS_PERMISSION = "barium.stats";
+    private static final String RELOAD_PERMISSION = "barium.reload";
+
+    private final Barium plugin;
+
+    BariumCommand(@NotNull Barium plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length != 1) return false;
+
+        switch (args[0].toLowerCase(Locale.ROOT)) {
+            case "stats" -> {
+                if (!sender.hasPermission(STATS_PERMISSION)) {
+                    sender.sendMessage("You do not have permission to view Barium's statistics.");
+                    return true;
+                }
+
+                final LoadController loadController = plugin.getLoadController();
+                sender.sendMessage(String.format("load: %s (%.1fms per tick)", loadController.getLevel(),
+                        loadController.getLastTickTime()));
+                for (String line : Metrics.report()) {
+                    sender.sendMessage(line);
+                }
+                return true;
+            }
+            case "reload" -> {
+                if (!sender.hasPermission(RELOAD_PERMISSION)) {
+                    sender.sendMessage("You do not have permission to reload Barium.");
+                    return true;
+                }
+
+                try {
+                    plugin.reloadMonsterTable();
+                    sender.sendMessage("Reloaded the monster roster.");
+                } catch (IllegalArgumentException exception) {
+                    sender.sendMessage("Could not reload the monster roster, the previous roster is kept: " + exception.getMessage());
+                }
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public @NotNull List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        final List<String> completions = new ArrayList<>();
+        if (args.length != 1) return completions;
+
+        final String prefix = args[0].toLowerCase(Locale.ROOT);
+        if ("stats".startsWith(prefix) && sender.hasPermission(STATS_PERMISSION)) completions.add("stats");
+        if ("reload".startsWith(prefix) && sender.hasPermission(RELOAD_PERMISSION)) completions.add("reload");
+        return completions;
+    }
+}
@@ -2,32 +2,76 @@ package me.craftinators.barium;
 
 import com.destroystokyo.paper.profile.PlayerProfile;
 import com.destroystokyo.paper.profile.ProfileProperty;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import me.craftinators.barium.metrics.Counter;
+import me.craftinators.barium.metrics.Metrics;
+import me.craftinators.barium.metrics.TexturedHeadEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.UUID;
-import java.util.function.Predicate;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 // Cache for UUIDs to prevent generating multiple UUIDs for the same texture.
 public final class Base64 {
-    // Regular expression to validate Base64 strings.
-    private static final Predicate<String> BASE_64_REGEX = Pattern.compile(
-            "^(?:[A-Za-z0-9+/]{4})*(?:[A-Za-z0-9+/]{2}==|[A-Za-z0-9+/]{3}=)?$"
-    ).asMatchPredicate();
+    private static final String TEXTURE_URL_PREFIX = "http://textures.minecraft.net/texture/";
+    private static final int TEXTURE_HASH_LENGTH = 64;
 
-    // Regular expression to validate Minecraft texture URLs.
-    private static final Predicate<String> TEXTURE_URL_REGEX = Pattern.compile(
-            "^http://textures\\.minecraft\\.net/texture/[a-f0-9]{64}$"
-    ).asMatchPredicate();
+    // The JSON a texture URL is wrapped in, split around the texture hash. The prefix is a multiple of 3 bytes long, so
+    // its Base64 encoding never changes and can be done once up front.
+    private static final byte[] TEXTURE_JSON_PREFIX = ("{\"textures\":{\"SKIN\":{\"url\":\"" + TEXTURE_URL_PREFIX)
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TEXTURE_JSON_SUFFIX = "\"}}}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ENCODED_TEXTURE_JSON_PREFIX = java.util.Base64.getEncoder().encode(TEXTURE_JSON_PREFIX);
+    private static final int TEXTURE_JSON_TAIL_LENGTH = TEXTURE_HASH_LENGTH + TEXTURE_JSON_SUFFIX.length;
+    private static final int ENCODED_TEXTURE_JSON_LENGTH =
+            ENCODED_TEXTURE_JSON_PREFIX.length + (TEXTURE_JSON_TAIL_LENGTH + 2) / 3 * 4;
 
-    private static final Map<String, UUID> UUID_CACHE = new HashMap<>();
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+            .getBytes(StandardCharsets.US_ASCII);
+    // The value of each Base64 character, or -1 for characters outside the alphabet
+    private static final byte[] ALPHABET_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(ALPHABET_VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            ALPHABET_VALUES[ALPHABET[i]] = (byte) i;
+        }
+
+        if (TEXTURE_JSON_PREFIX.length % 3 != 0) throw new AssertionError("Texture JSON prefix must be a multiple of 3 bytes.");
+    }
+
+    /**
+     * The maximum amount of head templates that are kept in the cache, the least recently used ones are evicted first.
+     */
+    public static final int HEAD_CACHE_SIZE = 1024;
+
+    // Fully built heads, keyed by their texture. Only clones are ever handed out.
+    private static final Cache<TextureKey, ItemStack> HEAD_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(HEAD_CACHE_SIZE)
+            .recordStats()
+            .build();
+    private static final Counter HEAD_CACHE_HITS = Metrics.counter("texture.head.hits");
+    private static final Counter HEAD_CACHE_MISSES = Metrics.counter("texture.head.misses");
+
+    // Only used without a catalog, which keeps the UUIDs itself. Holds more textures than the head cache, so that a head
+    // that is built again after being evicted usually keeps the same UUID.
+    private static final Cache<TextureKey, UUID> UUID_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(HEAD_CACHE_SIZE * 16L)
+            .build();
+
+    private static volatile TextureCatalog textureCatalog = null;
 
     private Base64() {
         throw new UnsupportedOperationException("This class cannot be instantiated.");
@@ -46,40 +90,103 @@ public final class Base64 {
      *   }
      * }</pre>
      *
+     * Heads are built once per texture and cached, every call returns a new clone of the cached head, so the returned
+     * {@link ItemStack} can be modified freely. This method is safe to call from any thread.
+     *
      * @param textureData The Base64 string or texture URL.
      * @return A player head {@link ItemStack} with the specified texture.
      * @throws IllegalArgumentException If the provided texture data is an invalid Base64 or texture URL.
      */
-    public @NotNull ItemStack getTexturedHead(@NotNull String textureData) {
+    public static @NotNull ItemStack getTexturedHead(@NotNull String textureData) {
+        final TexturedHeadEvent event = new TexturedHeadEvent();
+        event.begin();
+        TextureKey key = getTextureKey(textureData);
+
+        ItemStack template = HEAD_CACHE.getIfPresent(key);
+        final boolean cacheHit = template != null;
+        if (!cacheHit) {
+            // Two threads may build the same head at the same time, which is harmless as they end up with the same UUID
+            template = createHead(key, textureData);
+            HEAD_CACHE.put(key, template);
+        }
+
+        (cacheHit ? HEAD_CACHE_HITS : HEAD_CACHE_MISSES).increment();
+        if (event.shouldCommit()) {
+            event.cacheHit = cacheHit;
+            event.commit();
+        }
+        return template.clone();
+    }
+
+    /**
+     * Builds and caches the heads for the given textures, so that later calls to {@link #getTexturedHead(String)} for
+     * them are cache hits. Intended to be run off the main thread while the server is starting.
+     *
+     * @param textures The Base64 strings or texture URLs to build the heads of.
+     * @param executor The executor to build the heads on.
+     * @return A future that completes once all heads are built, or completes exceptionally if any texture is invalid.
+     */
+    public static @NotNull CompletableFuture<Void> prewarmHeads(@NotNull Collection<@NotNull String> textures,
+                                                                @NotNull Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            // Goes through the map view so that pre-warming does not count towards the hit and miss statistics
+            for (String textureData : textures) {
+                HEAD_CACHE.asMap().computeIfAbsent(getTextureKey(textureData), key -> createHead(key, textureData));
+            }
+        }, executor);
+    }
+
+    /**
+     * Gets the statistics of the head cache, such as the amount of hits, misses and evictions.
+     *
+     * @return A snapshot of the head cache statistics.
+     */
+    public static @NotNull CacheStats getHeadCacheStats() {
+        return HEAD_CACHE.stats();
+    }
+
+    /**
+     * Sets the catalog that is consulted before generating a new UUID for a texture, so that textures keep their UUID
+     * across restarts. Without a catalog, every texture is given a random UUID once per restart.
+     *
+     * @param catalog The catalog to use, or {@code null} to stop using one.
+     */
+    public static void setTextureCatalog(@Nullable TextureCatalog catalog) {
+        textureCatalog = catalog;
+    }
+
+    /**
+     * Gets the key of the texture data, without allocating anything for texture URLs. A texture URL, and the Base64
+     * encoding of a texture URL in the format shown in {@link #getTexturedHead(String)}, are keyed by the texture hash in
+     * the URL, so they share a head. Any other Base64 texture is keyed by its SHA-256 digest.
+     */
+    private static @NotNull TextureKey getTextureKey(@NotNull String textureData) {
         // Check if the textureData is a valid texture URL or Base64, and handle accordingly.
-        if (TEXTURE_URL_REGEX.test(textureData)) {
-            return createHeadFromURL(textureData);
+        if (isTextureURL(textureData)) {
+            return TextureKey.ofHexHash(textureData, TEXTURE_URL_PREFIX.length());
         }
 
-        if (BASE_64_REGEX.test(textureData)) {
-            return createHeadFromBase64(textureData);
+        if (isBase64(textureData)) {
+            TextureKey key = decodeTextureURLKey(textureData);
+            return key != null ? key : TextureKey.ofTexture(textureData);
         }
 
         // Throw an exception if the input format is invalid.
         throw new IllegalArgumentException("Provided texture data is neither a valid Base64 string nor a texture URL.");
     }
 
-    private static @NotNull ItemStack createHeadFromURL(@NotNull String textureURL) {
-        // Convert the texture URL into a JSON structure and encode it in Base64.
-        String textureJSON = buildTextureJson(textureURL);
-        String base64 = java.util.Base64.getEncoder().encodeToString(textureJSON.getBytes(StandardCharsets.UTF_8));
-
-        // Delegate to the Base64-based head creation method.
-        return createHeadFromBase64(base64);
+    private static @NotNull ItemStack createHead(@NotNull TextureKey key, @NotNull String textureData) {
+        String base64Texture = isTextureURL(textureData) ? encodeTextureURL(textureData) : textureData;
+        return createHeadFromBase64(key, base64Texture);
     }
 
-    private static @NotNull ItemStack createHeadFromBase64(@NotNull String base64Texture) {
+    private static @NotNull ItemStack createHeadFromBase64(@NotNull TextureKey key, @NotNull String base64Texture) {
         // Create the player head item.
         ItemStack playerHead = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta skullMeta = (SkullMeta) playerHead.getItemMeta();
 
         // Retrieve or generate a UUID for the texture.
-        UUID uuid = UUID_CACHE.computeIfAbsent(base64Texture, key -> UUID.randomUUID());
+        UUID uuid = lookupUUID(key);
 
         // Create a player profile with the texture.
         PlayerProfile playerProfile = Bukkit.createProfile(uuid, null);
@@ -92,9 +199,115 @@ public final class Base64 {
         return playerHead;
     }
 
-    private static @NotNull String buildTextureJson(@NotNull String url) {
-        return "{\"textures\":{\"SKIN\":{\"url\":\"" +
-                url +
-                "\"}}}";
+    private static @NotNull UUID lookupUUID(@NotNull TextureKey key) {
+        TextureCatalog catalog = textureCatalog;
+        if (catalog != null) {
+            try {
+                // The same key as the head cache, so that a URL and any Base64 wrapping it share one entry
+                return catalog.getOrCreate(key);
+            } catch (IOException exception) {
+                // The head is still usable, its UUID just won't be the same after a restart
+            }
+        }
+        return UUID_CACHE.asMap().computeIfAbsent(key, ignored -> UUID.randomUUID());
+    }
+
+    /**
+     * Checks if the string is a Minecraft texture URL, i.e. {@code http://textures.minecraft.net/texture/} followed by
+     * 64 lowercase hexadecimal digits.
+     */
+    private static boolean isTextureURL(@NotNull String string) {
+        if (string.length() != TEXTURE_URL_PREFIX.length() + TEXTURE_HASH_LENGTH) return false;
+        if (!string.startsWith(TEXTURE_URL_PREFIX)) return false;
+
+        for (int i = TEXTURE_URL_PREFIX.length(); i < string.length(); i++) {
+            char character = string.charAt(i);
+            if ((character < '0' || character > '9') && (character < 'a' || character > 'f')) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the string is valid padded Base64, i.e. groups of 4 characters of the Base64 alphabet where the last
+     * group may end with one or two {@code =}.
+     */
+    private static boolean isBase64(@NotNull String string) {
+        final int length = string.length();
+        if (length % 4 != 0) return false;
+
+        int padding = 0;
+        if (length > 0 && string.charAt(length - 1) == '=') padding++;
+        if (length > 1 && string.charAt(length - 2) == '=') padding++;
+
+        for (int i = 0; i < length - padding; i++) {
+            char character = string.charAt(i);
+            if (character >= ALPHABET_VALUES.length || ALPHABET_VALUES[character] < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the JSON of a texture URL to Base64, writing the pre-encoded prefix and then encoding only the texture hash
+     * and the suffix into the same buffer.
+     */
+    private static @NotNull String encodeTextureURL(@NotNull String textureURL) {
+        final byte[] encoded = Arrays.copyOf(ENCODED_TEXTURE_JSON_PREFIX, ENCODED_TEXTURE_JSON_LENGTH);
+        final int hashOffset = TEXTURE_URL_PREFIX.length();
+
+        int position = ENCODED_TEXTURE_JSON_PREFIX.length;
+        for (int i = 0; i < TEXTURE_JSON_TAIL_LENGTH; i += 3) {
+            final int remaining = TEXTURE_JSON_TAIL_LENGTH - i;
+            final int bits = tailByte(textureURL, hashOffset, i) << 16
+                    | (remaining > 1 ? tailByte(textureURL, hashOffset, i + 1) << 8 : 0)
+                    | (remaining > 2 ? tailByte(textureURL, hashOffset, i + 2) : 0);
+
+            encoded[position++] = ALPHABET[bits >>> 18 & 0x3F];
+            encoded[position++] = ALPHABET[bits >>> 12 & 0x3F];
+            encoded[position++] = remaining > 1 ? ALPHABET[bits >>> 6 & 0x3F] : (byte) '=';
+            encoded[position++] = remaining > 2 ? ALPHABET[bits & 0x3F] : (byte) '=';
+        }
+
+        return new String(encoded, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int tailByte(@NotNull String textureURL, int hashOffset, int index) {
+        return index < TEXTURE_HASH_LENGTH ? textureURL.charAt(hashOffset + index) : TEXTURE_JSON_SUFFIX[index - TEXTURE_HASH_LENGTH];
+    }
+
+    /**
+     * Decodes the texture hash out of Base64 that encodes the JSON of a texture URL, as produced by
+     * {@link #encodeTextureURL(String)}.
+     * @return The key of the texture hash, or {@code null} if the Base64 does not encode the JSON of a texture URL
+     */
+    private static @Nullable TextureKey decodeTextureURLKey(@NotNull String base64Texture) {
+        if (base64Texture.length() != ENCODED_TEXTURE_JSON_LENGTH) return null;
+        for (int i = 0; i < ENCODED_TEXTURE_JSON_PREFIX.length; i++) {
+            if (base64Texture.charAt(i) != ENCODED_TEXTURE_JSON_PREFIX[i]) return null;
+        }
+
+        final long[] hash = new long[TextureKey.BYTES / Long.BYTES];
+        int index = 0;
+        for (int position = ENCODED_TEXTURE_JSON_PREFIX.length; position < base64Texture.length(); position += 4) {
+            int bits = 0;
+            for (int i = 0; i < 4; i++) {
+                char character = base64Texture.charAt(position + i);
+                bits = bits << 6 | (character == '=' ? 0 : ALPHABET_VALUES[character]);
+            }
+
+            for (int shift = 16; shift >= 0 && index < TEXTURE_JSON_TAIL_LENGTH; shift -= 8, index++) {
+                final int value = bits >>> shift & 0xFF;
+                if (index >= TEXTURE_HASH_LENGTH) {
+                    if (value != TEXTURE_JSON_SUFFIX[index - TEXTURE_HASH_LENGTH]) return null;
+                    continue;
+                }
+
+                // Every byte of the hash is one lowercase hexadecimal digit, 16 of which make up one long
+                final int digit = Character.digit(value, 16);
+                if (digit < 0 || Character.isUpperCase(value)) return null;
+                hash[index / 16] = hash[index / 16] << 4 | digit;
+            }
+        }
+
+        return new TextureKey(hash[0], hash[1], hash[2], hash[3]);
     }
 }
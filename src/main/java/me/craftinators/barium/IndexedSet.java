@@ -0,0 +1,135 @@
+package me.craftinators.barium;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * A set that stores its elements in an array alongside a map from each element to its index in that array. Adding,
+ * removing, checking for and getting an element by index, and thus picking a uniformly random element, are all constant
+ * time. Elements are removed by moving the last element into their slot, so the iteration order is not stable.
+ * @param <E> The type of the elements in the set.
+ */
+public final class IndexedSet<E> extends AbstractSet<E> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] elements;
+    private final HashMap<E, Integer> indices;
+    private int size = 0;
+
+    public IndexedSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set that can hold the given amount of elements before it has to grow.
+     * @param initialCapacity The initial capacity of the set
+     */
+    public IndexedSet(int initialCapacity) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("Initial capacity cannot be negative.");
+
+        elements = new Object[Math.max(initialCapacity, 1)];
+        indices = HashMap.newHashMap(initialCapacity);
+    }
+
+    /**
+     * Gets the element at the specified index. Indices range from 0 to {@link #size()} (exclusive), and an element's
+     * index may change when another element is removed.
+     * @param index The index of the element
+     * @return The element at the specified index
+     * @throws IndexOutOfBoundsException If the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull E get(int index) {
+        Objects.checkIndex(index, size);
+        return (E) elements[index];
+    }
+
+    /**
+     * Gets a uniformly random element of this set. Fails fast if the set is empty.
+     * @param random The random number generator to use
+     * @return A random element of this set
+     */
+    public @NotNull E getRandom(@NotNull Random random) {
+        if (size == 0) throw new IllegalArgumentException("Set cannot be empty.");
+        return get(random.nextInt(size));
+    }
+
+    @Override
+    public boolean add(@NotNull E element) {
+        if (indices.putIfAbsent(element, size) != null) return false;
+
+        if (size == elements.length) elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = element;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        Integer index = indices.remove(element);
+        if (index == null) return false;
+
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return indices.containsKey(element);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        indices.clear();
+        size = 0;
+    }
+
+    @Override
+    public @NotNull Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int cursor = 0;
+            private boolean canRemove = false;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public E next() {
+                if (cursor >= size) throw new NoSuchElementException();
+
+                canRemove = true;
+                return get(cursor++);
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove) throw new IllegalStateException();
+
+                canRemove = false;
+                // The last element is moved into the removed slot, so that slot has to be visited again
+                indices.remove(elements[--cursor]);
+                removeAt(cursor);
+            }
+        };
+    }
+
+    // Assumes the element at the index was already removed from the index map
+    @SuppressWarnings("unchecked")
+    private void removeAt(int index) {
+        final int last = --size;
+        if (index != last) {
+            E moved = (E) elements[last];
+            elements[index] = moved;
+            indices.put(moved, index);
+        }
+        elements[last] = null;
+    }
+}
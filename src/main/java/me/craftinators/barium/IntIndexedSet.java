@@ -0,0 +1,141 @@
+package me.craftinators.barium;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * An {@link IndexedSet} of non-negative ints, meant for dense identifiers such as those handed out by
+ * {@link me.craftinators.barium.core.PlayerIds}. Instead of a hash map, the index of every element is kept in an array
+ * indexed by the element itself, so no element is ever boxed or hashed. The memory used grows with the largest element
+ * rather than with the amount of elements. Like {@link IndexedSet}, elements are removed by moving the last element
+ * into their slot, so the iteration order is not stable.
+ */
+public final class IntIndexedSet {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] elements;
+    // The index of each element plus one, so that 0 means absent
+    private int[] positions;
+    private int size = 0;
+
+    public IntIndexedSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set that can hold the given amount of elements, and elements up to that value, before it has to
+     * grow.
+     * @param initialCapacity The initial capacity of the set
+     */
+    public IntIndexedSet(int initialCapacity) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("Initial capacity cannot be negative.");
+
+        elements = new int[Math.max(initialCapacity, 1)];
+        positions = new int[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * Gets the element at the specified index. Indices range from 0 to {@link #size()} (exclusive), and an element's
+     * index may change when another element is removed.
+     * @param index The index of the element
+     * @return The element at the specified index
+     * @throws IndexOutOfBoundsException If the index is out of range
+     */
+    public int get(int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    /**
+     * Gets a uniformly random element of this set. Fails fast if the set is empty.
+     * @param random The random number generator to use
+     * @return A random element of this set
+     */
+    public int getRandom(@NotNull Random random) {
+        if (size == 0) throw new IllegalArgumentException("Set cannot be empty.");
+        return elements[random.nextInt(size)];
+    }
+
+    /**
+     * Adds an element to this set.
+     * @param element The element to add, cannot be negative
+     * @return {@code true} if the element was added, {@code false} if it was already in this set
+     * @throws IllegalArgumentException If the element is negative
+     */
+    public boolean add(int element) {
+        if (element < 0) throw new IllegalArgumentException("Element cannot be negative.");
+        if (element >= positions.length) positions = Arrays.copyOf(positions, Math.max(positions.length * 2, element + 1));
+        if (positions[element] != 0) return false;
+
+        if (size == elements.length) elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = element;
+        positions[element] = size;
+        return true;
+    }
+
+    /**
+     * Removes an element from this set.
+     * @param element The element to remove
+     * @return {@code true} if the element was removed, {@code false} if it was not in this set
+     */
+    public boolean remove(int element) {
+        if (!contains(element)) return false;
+
+        final int index = positions[element] - 1;
+        positions[element] = 0;
+        final int last = --size;
+        if (index != last) {
+            final int moved = elements[last];
+            elements[index] = moved;
+            positions[moved] = index + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if an element is in this set.
+     * @param element The element to check
+     * @return {@code true} if the element is in this set, {@code false} otherwise
+     */
+    public boolean contains(int element) {
+        return element >= 0 && element < positions.length && positions[element] != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[elements[i]] = 0;
+        }
+        size = 0;
+    }
+
+    /**
+     * Performs the given action for every element of this set, in index order. The set must not be changed by the
+     * action.
+     * @param action The action to perform
+     */
+    public void forEach(@NotNull IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    /**
+     * Gets the elements of this set in index order.
+     * @return A new array with the elements of this set
+     */
+    public int @NotNull [] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -0,0 +1,128 @@
+package me.craftinators.barium;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A map from non-negative ints to objects, meant for per-player state keyed by the dense identifiers handed out by
+ * {@link me.craftinators.barium.core.PlayerIds}. Values are stored in an array indexed by the key, so looking up a
+ * value is a single array access, and no key is ever boxed or hashed. The memory used grows with the largest key rather
+ * than with the amount of entries, so keys should be kept small. Not thread-safe.
+ * @param <V> The type of the values in the map.
+ */
+public final class IntObjectMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] values;
+    private int size = 0;
+
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that can hold keys below the given capacity before it has to grow.
+     * @param initialCapacity The initial capacity of the map
+     */
+    public IntObjectMap(int initialCapacity) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("Initial capacity cannot be negative.");
+
+        values = new Object[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * Gets the value of a key.
+     * @param key The key
+     * @return The value of the key, or {@code null} if the key is not in this map
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(int key) {
+        return key >= 0 && key < values.length ? (V) values[key] : null;
+    }
+
+    /**
+     * Gets the value of a key, computing and storing it first if the key is not in this map yet.
+     * @param key The key, cannot be negative
+     * @param function Computes the value of the key
+     * @return The value of the key
+     * @throws IllegalArgumentException If the key is negative
+     */
+    public @NotNull V computeIfAbsent(int key, @NotNull IntFunction<? extends @NotNull V> function) {
+        V value = get(key);
+        if (value == null) {
+            value = function.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Sets the value of a key.
+     * @param key The key, cannot be negative
+     * @param value The value
+     * @return The previous value of the key, or {@code null} if the key was not in this map
+     * @throws IllegalArgumentException If the key is negative
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V put(int key, @NotNull V value) {
+        if (key < 0) throw new IllegalArgumentException("Key cannot be negative.");
+        if (key >= values.length) values = Arrays.copyOf(values, Math.max(values.length * 2, key + 1));
+
+        final V previous = (V) values[key];
+        values[key] = value;
+        if (previous == null) size++;
+        return previous;
+    }
+
+    /**
+     * Removes a key from this map.
+     * @param key The key
+     * @return The value of the key, or {@code null} if the key was not in this map
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(int key) {
+        if (key < 0 || key >= values.length) return null;
+
+        final V previous = (V) values[key];
+        if (previous != null) {
+            values[key] = null;
+            size--;
+        }
+        return previous;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Performs the given action for every entry of this map, in the order of the keys.
+     * @param action The action to perform, given the value and its key
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(@NotNull ObjIntConsumer<? super V> action) {
+        for (int key = 0, remaining = size; remaining > 0 && key < values.length; key++) {
+            if (values[key] == null) continue;
+
+            action.accept((V) values[key], key);
+            remaining--;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package me.craftinators.barium;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * A map from longs to objects, meant for state keyed by packed coordinates such as chunk keys. Entries are kept in an
+ * open addressed table with linear probing, so no key is ever boxed and looking up a key does not allocate. Unlike
+ * {@link IntObjectMap}, keys can be any long, as they are hashed rather than used as an index. Not thread-safe.
+ * @param <V> The type of the values in the map.
+ */
+public final class LongObjectMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    // A slot is empty when its value is null
+    private Object[] values;
+    private int mask;
+    private int size = 0;
+
+    public LongObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that can hold the given amount of entries before it has to grow.
+     * @param initialCapacity The initial capacity of the map
+     */
+    public LongObjectMap(int initialCapacity) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("Initial capacity cannot be negative.");
+
+        // The table is kept at most half full, so that probe sequences stay short
+        final int tableSize = Integer.highestOneBit(Math.max(initialCapacity, 1) * 2 - 1) << 1;
+        keys = new long[tableSize];
+        values = new Object[tableSize];
+        mask = tableSize - 1;
+    }
+
+    /**
+     * Gets the value of a key.
+     * @param key The key
+     * @return The value of the key, or {@code null} if the key is not in this map
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(long key) {
+        for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return (V) values[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Gets the value of a key, computing and storing it first if the key is not in this map yet.
+     * @param key The key
+     * @param function Computes the value of the key
+     * @return The value of the key
+     */
+    public @NotNull V computeIfAbsent(long key, @NotNull LongFunction<? extends @NotNull V> function) {
+        V value = get(key);
+        if (value == null) {
+            value = function.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Sets the value of a key.
+     * @param key The key
+     * @param value The value
+     * @return The previous value of the key, or {@code null} if the key was not in this map
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V put(long key, @NotNull V value) {
+        int slot = slot(key);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] != key) continue;
+
+            final V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) grow();
+        return null;
+    }
+
+    /**
+     * Removes a key from this map.
+     * @param key The key
+     * @return The value of the key, or {@code null} if the key was not in this map
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(long key) {
+        int slot = slot(key);
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == null) return null;
+
+        final V previous = (V) values[slot];
+        // Shifts the entries after the removed one back, so that no probe sequence is broken by the empty slot
+        int hole = slot;
+        for (int next = (hole + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            if (((next - slot(keys[next])) & mask) < ((next - hole) & mask)) continue;
+
+            keys[hole] = keys[next];
+            values[hole] = values[next];
+            hole = next;
+        }
+        values[hole] = null;
+        size--;
+        return previous;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void grow() {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        mask = keys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) continue;
+
+            int slot = slot(oldKeys[i]);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
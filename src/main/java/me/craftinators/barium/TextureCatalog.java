@@ -0,0 +1,177 @@
+package me.craftinators.barium;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A persistent catalog mapping {@link TextureKey}s to the UUIDs of the profiles they were given, so that the same texture
+ * keeps the same UUID across restarts and clients can keep using their cached skins.
+ * <p>
+ * The catalog is a memory-mapped file made of a small header followed by fixed-width records, each holding a key and a
+ * UUID. Opening the catalog only maps the file, the records are read the first time a texture is looked up. New records
+ * are appended to the mapped file, and are only synced to disk by {@link #flush()} and {@link #close()}, which do so
+ * without holding the lock, so that looking up a texture never waits for the disk.
+ */
+public final class TextureCatalog implements Closeable {
+    private static final int MAGIC = 0x42615443; // "BaTC"
+    private static final int VERSION = 1;
+
+    // Magic, version and record count
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int RECORD_COUNT_OFFSET = Integer.BYTES + Integer.BYTES;
+    private static final int RECORD_SIZE = TextureKey.BYTES + 2 * Long.BYTES;
+
+    // The file grows by this many records at a time, so that it does not have to be remapped for every append
+    private static final int GROWTH_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long recordCount;
+    private int unsyncedRecords = 0;
+
+    // Built from the records the first time a texture is looked up
+    private Map<TextureKey, UUID> index = null;
+
+    private TextureCatalog(@NotNull FileChannel channel, @NotNull MappedByteBuffer buffer, long recordCount) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * Opens the catalog at the specified path, creating it if it does not exist yet.
+     * @param path The path of the catalog file
+     * @return The opened catalog
+     * @throws IOException If the file could not be opened, or is not a catalog of a supported version
+     */
+    public static @NotNull TextureCatalog open(@NotNull Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityFor(0));
+                buffer.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION).putLong(RECORD_COUNT_OFFSET, 0);
+                buffer.force();
+                return new TextureCatalog(channel, buffer, 0);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a texture catalog.");
+            }
+            if (buffer.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException(path + " has unsupported texture catalog version " + buffer.getInt(Integer.BYTES) + ".");
+            }
+
+            // Never trust the count further than the file actually goes
+            long recordCount = Math.min(buffer.getLong(RECORD_COUNT_OFFSET), (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE);
+            return new TextureCatalog(channel, buffer, recordCount);
+        } catch (IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Gets the UUID of a texture, generating and appending a new one if the texture is not in the catalog yet.
+     * @param key The key of the texture
+     * @return The UUID of the texture
+     * @throws IOException If the catalog had to grow and the file could not be extended
+     */
+    public synchronized @NotNull UUID getOrCreate(@NotNull TextureKey key) throws IOException {
+        ensureOpen();
+
+        UUID uuid = index().get(key);
+        if (uuid != null) return uuid;
+
+        uuid = UUID.randomUUID();
+        append(key, uuid);
+        index.put(key, uuid);
+        return uuid;
+    }
+
+    /**
+     * Gets the amount of textures in the catalog.
+     * @return The amount of textures in the catalog
+     */
+    public synchronized long size() {
+        return recordCount;
+    }
+
+    /**
+     * Syncs all appended records to disk. Blocks until the disk is done, so it should be called off the main thread.
+     */
+    public void flush() {
+        final MappedByteBuffer unsynced;
+        synchronized (this) {
+            if (unsyncedRecords == 0 || buffer == null) return;
+
+            unsynced = buffer;
+            unsyncedRecords = 0;
+        }
+        // Outside the lock, so that textures can be looked up while syncing
+        unsynced.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        final MappedByteBuffer unsynced;
+        synchronized (this) {
+            if (buffer == null) return;
+
+            unsynced = unsyncedRecords > 0 ? buffer : null;
+            buffer = null;
+            index = null;
+            unsyncedRecords = 0;
+        }
+
+        if (unsynced != null) unsynced.force();
+        channel.close();
+    }
+
+    private @NotNull Map<TextureKey, UUID> index() {
+        if (index != null) return index;
+
+        index = new HashMap<>(Math.max(16, (int) (recordCount * 4 / 3)));
+        MappedByteBuffer records = buffer.duplicate().position(HEADER_SIZE);
+        for (long i = 0; i < recordCount; i++) {
+            TextureKey key = TextureKey.read(records);
+            index.put(key, new UUID(records.getLong(), records.getLong()));
+        }
+        return index;
+    }
+
+    private void append(@NotNull TextureKey key, @NotNull UUID uuid) throws IOException {
+        long position = HEADER_SIZE + recordCount * RECORD_SIZE;
+        if (position + RECORD_SIZE > buffer.capacity()) {
+            // Mapping past the end of the file extends it. Both mappings share the same pages, so the records of the old
+            // one are synced by forcing the new one.
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityFor(recordCount + 1));
+        }
+
+        // Write the record before the count, so that a record is never counted before it exists
+        MappedByteBuffer record = buffer.duplicate().position((int) position);
+        key.write(record);
+        record.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        buffer.putLong(RECORD_COUNT_OFFSET, ++recordCount);
+        unsyncedRecords++;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) throw new IOException("The texture catalog is closed.");
+    }
+
+    private static long capacityFor(long records) {
+        long rounded = (records + GROWTH_RECORDS - 1) / GROWTH_RECORDS * GROWTH_RECORDS;
+        return HEADER_SIZE + Math.max(rounded, GROWTH_RECORDS) * RECORD_SIZE;
+    }
+}
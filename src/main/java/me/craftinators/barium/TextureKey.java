@@ -0,0 +1,67 @@
+package me.craftinators.barium;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A compact 32-byte key identifying a texture, stored as four longs so that it is cheap to hash and compare. Depending on
+ * where it comes from, a key holds either the texture hash of a texture URL or the SHA-256 digest of a Base64 texture.
+ */
+public record TextureKey(long first, long second, long third, long fourth) {
+    /**
+     * The size of a key in bytes.
+     */
+    public static final int BYTES = 4 * Long.BYTES;
+
+    /**
+     * Creates the key of a texture from the SHA-256 digest of its Base64 value.
+     * @param base64Texture The Base64 texture value, as stored in the {@code textures} profile property
+     * @return The key of the texture
+     */
+    public static @NotNull TextureKey ofTexture(@NotNull String base64Texture) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return read(ByteBuffer.wrap(digest.digest(base64Texture.getBytes(StandardCharsets.US_ASCII))));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available. This should not happen.", exception);
+        }
+    }
+
+    /**
+     * Creates a key from 64 hexadecimal digits, such as the texture hash at the end of a texture URL.
+     * @param string The string containing the digits
+     * @param offset The index of the first digit in the string
+     * @return The key of the hexadecimal digits
+     * @throws NumberFormatException If the string does not contain 64 hexadecimal digits at the offset
+     */
+    public static @NotNull TextureKey ofHexHash(@NotNull CharSequence string, int offset) {
+        final int digitsPerLong = 2 * Long.BYTES;
+        return new TextureKey(
+                Long.parseUnsignedLong(string, offset, offset + digitsPerLong, 16),
+                Long.parseUnsignedLong(string, offset + digitsPerLong, offset + 2 * digitsPerLong, 16),
+                Long.parseUnsignedLong(string, offset + 2 * digitsPerLong, offset + 3 * digitsPerLong, 16),
+                Long.parseUnsignedLong(string, offset + 3 * digitsPerLong, offset + 4 * digitsPerLong, 16)
+        );
+    }
+
+    /**
+     * Reads a key from the current position of the buffer, advancing it by {@link #BYTES}.
+     * @param buffer The buffer to read from
+     * @return The key that was read
+     */
+    public static @NotNull TextureKey read(@NotNull ByteBuffer buffer) {
+        return new TextureKey(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Writes this key at the current position of the buffer, advancing it by {@link #BYTES}.
+     * @param buffer The buffer to write to
+     */
+    public void write(@NotNull ByteBuffer buffer) {
+        buffer.putLong(first).putLong(second).putLong(third).putLong(fourth);
+    }
+}
@@ -2,10 +2,7 @@ package me.craftinators.barium;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.EnumSet;
-import java.util.Random;
+import java.util.*;
 
 public final class Utility {
     private Utility() {
@@ -13,7 +10,8 @@ public final class Utility {
     }
 
     /**
-     * Gets a random element from the collection. Fails fast if the collection is empty.
+     * Gets a random element from the collection. Fails fast if the collection is empty. This is constant time for
+     * {@link IndexedSet}s and {@link RandomAccess} lists, and linear time for any other collection.
      * @param collection The collection to get the random element from.
      * @param random The random number generator to use.
      * @return A random element from the collection.
@@ -22,6 +20,9 @@ public final class Utility {
     public static <T> @NotNull T getRandomElement(@NotNull Collection<T> collection, @NotNull Random random) {
         if (collection.isEmpty()) throw new IllegalArgumentException("Collection cannot be empty.");
 
+        if (collection instanceof IndexedSet<T> indexedSet) return indexedSet.getRandom(random);
+        if (collection instanceof List<T> list && list instanceof RandomAccess) return list.get(random.nextInt(list.size()));
+
         return collection.stream()
                 .skip(random.nextInt(collection.size()))
                 .findFirst()
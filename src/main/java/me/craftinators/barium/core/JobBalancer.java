@@ -0,0 +1,64 @@
+package me.craftinators.barium.core;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The planning half of {@link Match#balanceJobs()}, working only on the amount of players in each job. It does not
+ * touch any players, so it can also be used to simulate balancing without a server.
+ */
+public final class JobBalancer {
+    private JobBalancer() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    /**
+     * Computes how many players each job should hold once balanced. Every job gets the same share, and the players left
+     * over are given to the jobs that already hold more than that share first, so that as few players as possible have
+     * to be moved.
+     * @param counts The current amount of players in each job, indexed by {@link Job#ordinal()}
+     * @return The target amount of players for each job, indexed by {@link Job#ordinal()}
+     */
+    public static int @NotNull [] computeTargetCounts(int @NotNull [] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+
+        final int share = total / counts.length;
+        int leftover = total % counts.length;
+
+        final int[] targets = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            targets[i] = share;
+            if (leftover > 0 && counts[i] > share) {
+                targets[i]++;
+                leftover--;
+            }
+        }
+
+        // Any leftover players now go to jobs that have to receive players anyway, it does not matter which.
+        for (int i = 0; leftover > 0; i++) {
+            if (targets[i] == share) {
+                targets[i]++;
+                leftover--;
+            }
+        }
+
+        return targets;
+    }
+
+    /**
+     * Computes how many players have to be moved to balance the jobs, which is the least amount possible.
+     * @param counts The current amount of players in each job, indexed by {@link Job#ordinal()}
+     * @return The amount of players that have to change job
+     */
+    public static int countTransfers(int @NotNull [] counts) {
+        final int[] targets = computeTargetCounts(counts);
+
+        int transfers = 0;
+        for (int i = 0; i < counts.length; i++) {
+            transfers += Math.max(counts[i] - targets[i], 0);
+        }
+        return transfers;
+    }
+}
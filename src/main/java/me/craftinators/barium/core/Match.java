@@ -1,32 +1,188 @@
 package me.craftinators.barium.core;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import me.craftinators.barium.Barium;
-import me.craftinators.barium.Utility;
+import me.craftinators.barium.IntIndexedSet;
+import me.craftinators.barium.IntObjectMap;
+import me.craftinators.barium.core.tick.TickEngine;
+import me.craftinators.barium.core.tick.Tickable;
+import me.craftinators.barium.event.JobTransferred;
+import me.craftinators.barium.event.MatchEvents;
 import me.craftinators.barium.event.match.PlayerAttemptJoinMatchEvent;
+import me.craftinators.barium.event.match.PlayersAttemptJoinMatchEvent;
+import me.craftinators.barium.journal.JobTransferRecord;
+import me.craftinators.barium.journal.Journal;
+import me.craftinators.barium.metrics.BalanceJobsEvent;
+import me.craftinators.barium.metrics.Counter;
+import me.craftinators.barium.metrics.Histogram;
+import me.craftinators.barium.metrics.JoinAttemptEvent;
+import me.craftinators.barium.metrics.Metrics;
+import me.craftinators.barium.snapshot.MatchSnapshot;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 
-public abstract class Match {
-    private final Barium plugin;
-    private final Random random;
+/**
+ * A match that players can join and that keeps track of their jobs. A match is safe to use from any thread, the players
+ * and their jobs are guarded by a read-write lock, so queries from several threads do not block each other. Events are
+ * always fired on the main thread, see {@link #addPlayerAsync(WrappedPlayer)}.
+ * <p>
+ * While a match is registered with a {@link MatchManager} that is driven by a {@link TickEngine}, it is
+ * {@link #tick(TickEngine, long) ticked} once per tick.
+ */
+public abstract class Match implements Tickable {
+    private static final Job[] JOBS = Job.values();
+    private static final AtomicLong NEXT_ID = new AtomicLong();
 
-    private final Set<WrappedPlayer> players = new HashSet<>();
+    private static final Histogram BALANCE_JOBS_NANOS = Metrics.histogram("match.balance_jobs.nanos");
+    private static final Counter BALANCE_JOBS_TRANSFERS = Metrics.counter("match.balance_jobs.transfers");
+    private static final Histogram JOIN_DISPATCH_NANOS = Metrics.histogram("match.join.dispatch.nanos");
+    private static final Counter JOIN_ATTEMPTS = Metrics.counter("match.join.attempts");
+    private static final Counter JOIN_CANCELLED = Metrics.counter("match.join.cancelled");
+
+    private final long id = NEXT_ID.getAndIncrement();
+    private final Plugin plugin;
+    private final int maxPlayers;
+
+    // Set while the match is registered with a manager, which is told about every change in membership
+    volatile MatchManager manager = null;
+    private volatile Journal journal = null;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    // Players are kept by their PlayerIds identifier, which they hold a reference to while they are in the match
+    private final IntIndexedSet players = new IntIndexedSet();
+    private final IntObjectMap<WrappedPlayer> members = new IntObjectMap<>();
+    // The identifiers of the players of each job, indexed by the job's ordinal. Kept in sync by addPlayer and
+    // transferPlayer.
+    private final IntIndexedSet[] buckets = new IntIndexedSet[JOBS.length];
+
+    // Bumped whenever a player joins or changes job. The snapshot is cleared when the membership changes, and rebuilt
+    // the next time it is asked for. It is always cleared before the version is bumped, so a reader that sees the new
+    // version cannot get the old snapshot.
+    private volatile long rosterVersion = 0;
+    private volatile Set<WrappedPlayer> rosterSnapshot = ImmutableSet.of();
+
+    /**
+     * Creates a match without a limit on the amount of players.
+     * @param plugin The plugin the match belongs to
+     */
+    public Match(@NotNull Plugin plugin) {
+        this(plugin, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a match that holds at most the given amount of players.
+     * @param plugin The plugin the match belongs to
+     * @param maxPlayers The maximum amount of players, must be positive
+     */
+    public Match(@NotNull Plugin plugin, int maxPlayers) {
+        if (maxPlayers <= 0) throw new IllegalArgumentException("Maximum amount of players must be positive.");
 
-    public Match(Barium plugin) {
         this.plugin = plugin;
-        random = ThreadLocalRandom.current();
+        this.maxPlayers = maxPlayers;
+
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntIndexedSet();
+        }
+    }
+
+    /**
+     * Gets the journal the job transfers of this match are recorded to.
+     * @return The journal, or {@code null} if transfers are not recorded
+     */
+    public final @Nullable Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Sets the journal the job transfers of this match are recorded to. Recording never blocks, see
+     * {@link Journal#append(me.craftinators.barium.journal.JournalRecord)}.
+     * @param journal The journal, or {@code null} to stop recording
+     */
+    public final void setJournal(@Nullable Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the identifier of the match, which is unique for the lifetime of the server. Identifiers start over when the
+     * server restarts, the journal tells matches of different runs apart by the {@link Journal#SESSION session}.
+     * @return The identifier of the match
+     */
+    public final long getId() {
+        return id;
     }
 
     /**
-     * Gets the players in the match.
+     * Gets the maximum amount of players the match can hold.
+     * @return The maximum amount of players, or {@link Integer#MAX_VALUE} if there is no limit
+     */
+    public final int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    /**
+     * Gets the amount of players in the match.
+     * @return The amount of players in the match
+     */
+    public final int getPlayerCount() {
+        readLock.lock();
+        try {
+            return players.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets how many more players the match can hold.
+     * @return The amount of free slots in the match
+     */
+    public final int getFreeSlots() {
+        return maxPlayers - getPlayerCount();
+    }
+
+    /**
+     * Gets the players in the match. The returned set is a snapshot that is only rebuilt after the membership of the match
+     * changed, so calling this repeatedly does not allocate.
      * @return An immutable set of {@link WrappedPlayer} in the match.
      */
     public final @NotNull Set<@NotNull WrappedPlayer> getPlayers() {
-        return ImmutableSet.copyOf(players);
+        Set<WrappedPlayer> snapshot = rosterSnapshot;
+        if (snapshot != null) return snapshot;
+
+        // Publishing while holding the read lock makes sure that no change can happen between copying and publishing
+        readLock.lock();
+        try {
+            snapshot = rosterSnapshot;
+            if (snapshot == null) {
+                snapshot = toPlayerSet(players);
+                rosterSnapshot = snapshot;
+            }
+            return snapshot;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the version of the roster, which changes whenever a player joins the match or changes job. Callers can
+     * remember the version they last looked at and skip their work if it did not change since.
+     * @return The current roster version
+     */
+    public final long getRosterVersion() {
+        return rosterVersion;
     }
 
     /**
@@ -35,74 +191,432 @@ public abstract class Match {
      * @return {@code true} if the player is in the match, {@code false} otherwise
      */
     public final boolean containsPlayer(@NotNull WrappedPlayer player) {
-        return players.contains(player);
+        readLock.lock();
+        try {
+            return players.contains(player.getId());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets a uniformly random player in the match, in constant time.
+     * @return An optional containing a random player, or an empty optional if the match is empty
+     */
+    public final @NotNull Optional<@NotNull WrappedPlayer> getRandomPlayer() {
+        readLock.lock();
+        try {
+            if (players.isEmpty()) return Optional.empty();
+            return Optional.of(members.get(players.getRandom(ThreadLocalRandom.current())));
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
      * Attempts to add a player to the match, firing a {@link PlayerAttemptJoinMatchEvent} if the player wasn't already in the
-     * match. If the event is cancelled, the player will not be added.
+     * match and the event has listeners. If the event is cancelled or the match is full, the player will not be added.
+     * Must be called from the main thread, use {@link #addPlayerAsync(WrappedPlayer)} from any other thread.
      * @param player The player to add to the match
-     * @return {@code true} if the player was added, {@code false} if the player was already in the match or the event
-     * was cancelled
+     * @return {@code true} if the player was added, {@code false} if the player was already in the match, the match is
+     * full or the event was cancelled
      */
     public final boolean addPlayer(@NotNull WrappedPlayer player) {
-        if (players.contains(player)) return false;
+        readLock.lock();
+        try {
+            if (players.contains(player.getId()) || players.size() >= maxPlayers) return false;
+        } finally {
+            readLock.unlock();
+        }
+
+        // The event is fired without holding the lock, so listeners are free to query the match
+        final JoinAttemptEvent joinAttempt = new JoinAttemptEvent();
+        joinAttempt.begin();
+        final long start = System.nanoTime();
+        // Nobody can cancel the attempt without listeners, so the event isn't even constructed
+        boolean cancelled = false;
+        if (hasListeners(PlayerAttemptJoinMatchEvent.getHandlerList())) {
+            PlayerAttemptJoinMatchEvent event = new PlayerAttemptJoinMatchEvent(this, player);
+            plugin.getServer().getPluginManager().callEvent(event);
+            cancelled = event.isCancelled();
+        }
+        recordJoinAttempt(joinAttempt, start, 1, cancelled ? 1 : 0);
+        if (cancelled) return false;
+
+        writeLock.lock();
+        try {
+            // Another thread may have added the player, or filled the match, while the event was being fired
+            if (!insertPlayer(player)) return false;
+
+            rosterSnapshot = null;
+            rosterVersion++;
+        } finally {
+            writeLock.unlock();
+        }
+
+        MatchManager manager = this.manager;
+        if (manager != null) manager.onPlayerAdded(this, player);
+        return true;
+    }
+
+    /**
+     * Attempts to add several players to the match at once, firing a single {@link PlayersAttemptJoinMatchEvent} for
+     * all players that weren't already in the match. Players cancelled in that event will not be added, and once the
+     * match is full the remaining players will not be added either. If there are
+     * listeners for {@link PlayerAttemptJoinMatchEvent}, it is fired for every player that was not cancelled yet as well.
+     * Must be called from the main thread, use {@link #addPlayersAsync(Collection)} from any other thread.
+     * @param candidates The players to add to the match
+     * @return An immutable set of the players that were added
+     */
+    public final @NotNull Set<@NotNull WrappedPlayer> addPlayers(@NotNull Collection<? extends @NotNull WrappedPlayer> candidates) {
+        final Set<WrappedPlayer> unique = new LinkedHashSet<>(candidates);
+        readLock.lock();
+        try {
+            if (players.size() >= maxPlayers) return ImmutableSet.of();
+            unique.removeIf(player -> players.contains(player.getId()));
+        } finally {
+            readLock.unlock();
+        }
+        if (unique.isEmpty()) return ImmutableSet.of();
+        final List<WrappedPlayer> joining = new ArrayList<>(unique);
 
-        PlayerAttemptJoinMatchEvent event = new PlayerAttemptJoinMatchEvent(this, player);
-        plugin.getServer().getPluginManager().callEvent(event);
-        if (event.isCancelled()) return false;
+        // The events are fired without holding the lock, so listeners are free to query the match
+        final JoinAttemptEvent joinAttempt = new JoinAttemptEvent();
+        joinAttempt.begin();
+        final long start = System.nanoTime();
+        PlayersAttemptJoinMatchEvent event = new PlayersAttemptJoinMatchEvent(this, joining);
+        if (hasListeners(PlayersAttemptJoinMatchEvent.getHandlerList())) {
+            plugin.getServer().getPluginManager().callEvent(event);
+        }
+
+        if (hasListeners(PlayerAttemptJoinMatchEvent.getHandlerList())) {
+            for (int i = 0; i < joining.size(); i++) {
+                if (event.isCancelled(i)) continue;
+
+                PlayerAttemptJoinMatchEvent playerEvent = new PlayerAttemptJoinMatchEvent(this, joining.get(i));
+                plugin.getServer().getPluginManager().callEvent(playerEvent);
+                if (playerEvent.isCancelled()) event.setCancelled(i, true);
+            }
+        }
+        recordJoinAttempt(joinAttempt, start, joining.size(), event.getCancelledCount());
+
+        final ImmutableSet.Builder<WrappedPlayer> added = ImmutableSet.builder();
+        writeLock.lock();
+        try {
+            boolean changed = false;
+            for (int i = 0; i < joining.size(); i++) {
+                if (event.isCancelled(i)) continue;
+
+                // Another thread may have added the player while the events were being fired
+                WrappedPlayer player = joining.get(i);
+                if (insertPlayer(player)) {
+                    added.add(player);
+                    changed = true;
+                }
+            }
 
-        return players.add(player);
+            if (changed) {
+                rosterSnapshot = null;
+                rosterVersion++;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        Set<WrappedPlayer> addedPlayers = added.build();
+        MatchManager manager = this.manager;
+        if (manager != null) {
+            for (WrappedPlayer player : addedPlayers) {
+                manager.onPlayerAdded(this, player);
+            }
+        }
+        return addedPlayers;
     }
 
+    /**
+     * Removes a player from the match.
+     * @param player The player to remove from the match
+     * @return {@code true} if the player was removed, {@code false} if the player was not in the match
+     */
+    public final boolean removePlayer(@NotNull WrappedPlayer player) {
+        writeLock.lock();
+        try {
+            final int id = player.getId();
+            if (!players.remove(id)) return false;
+            buckets[members.remove(id).getJob().ordinal()].remove(id);
+            PlayerIds.release(player.getUniqueId());
+
+            rosterSnapshot = null;
+            rosterVersion++;
+        } finally {
+            writeLock.unlock();
+        }
+
+        MatchManager manager = this.manager;
+        if (manager != null) manager.onPlayerRemoved(this, player);
+        return true;
+    }
+
+    /**
+     * Attempts to add a player to the match from any thread. The {@link PlayerAttemptJoinMatchEvent} is still fired on
+     * the main thread, so unless this is called from the main thread, the player is added during a later tick.
+     * @param player The player to add to the match
+     * @return A future completing with {@code true} if the player was added, or {@code false} if the player was already
+     * in the match or the event was cancelled
+     * @see #addPlayer(WrappedPlayer)
+     */
+    public final @NotNull CompletableFuture<@NotNull Boolean> addPlayerAsync(@NotNull WrappedPlayer player) {
+        if (containsPlayer(player)) return CompletableFuture.completedFuture(false);
+        if (plugin.getServer().isPrimaryThread()) return CompletableFuture.completedFuture(addPlayer(player));
+
+        return CompletableFuture.supplyAsync(
+                () -> addPlayer(player),
+                plugin.getServer().getScheduler().getMainThreadExecutor(plugin)
+        );
+    }
+
+    /**
+     * Attempts to add several players to the match from any thread. The events are still fired on the main thread, so
+     * unless this is called from the main thread, the players are added during a later tick.
+     * @param candidates The players to add to the match
+     * @return A future completing with an immutable set of the players that were added
+     * @see #addPlayers(Collection)
+     */
+    public final @NotNull CompletableFuture<@NotNull Set<@NotNull WrappedPlayer>> addPlayersAsync(
+            @NotNull Collection<? extends @NotNull WrappedPlayer> candidates) {
+        if (plugin.getServer().isPrimaryThread()) return CompletableFuture.completedFuture(addPlayers(candidates));
+
+        // Copied, as the collection may be modified before the task runs
+        final List<WrappedPlayer> copy = List.copyOf(candidates);
+        return CompletableFuture.supplyAsync(
+                () -> addPlayers(copy),
+                plugin.getServer().getScheduler().getMainThreadExecutor(plugin)
+        );
+    }
+
+    private void recordJoinAttempt(@NotNull JoinAttemptEvent event, long start, int attempts, int cancelled) {
+        JOIN_DISPATCH_NANOS.record(System.nanoTime() - start);
+        JOIN_ATTEMPTS.add(attempts);
+        JOIN_CANCELLED.add(cancelled);
+        if (event.shouldCommit()) {
+            event.match = id;
+            event.players = attempts;
+            event.cancelled = cancelled;
+            event.commit();
+        }
+    }
+
+    private static boolean hasListeners(@NotNull HandlerList handlers) {
+        return handlers.getRegisteredListeners().length > 0;
+    }
+
+    // Must be called while holding the write lock
+    private boolean canInsertPlayer(@NotNull WrappedPlayer player) {
+        return players.size() < maxPlayers && !players.contains(player.getId());
+    }
+
+    private boolean insertPlayer(@NotNull WrappedPlayer player) {
+        if (!canInsertPlayer(player)) return false;
+
+        final int id = PlayerIds.acquire(player.getUniqueId());
+        players.add(id);
+        members.put(id, player);
+        buckets[player.getJob().ordinal()].add(id);
+        return true;
+    }
+
+    private @NotNull ImmutableSet<WrappedPlayer> toPlayerSet(@NotNull IntIndexedSet ids) {
+        final ImmutableSet.Builder<WrappedPlayer> builder = ImmutableSet.builderWithExpectedSize(ids.size());
+        ids.forEach(id -> builder.add(members.get(id)));
+        return builder.build();
+    }
+
+    /**
+     * Called once per tick while the match is driven by a {@link TickEngine}. Does nothing by default. Subclasses can
+     * override it for their periodic logic, and should schedule anything expensive on the engine, for example with
+     * {@link me.craftinators.barium.core.tick.TickTasks}, instead of doing it right away.
+     * @param engine The engine that is ticking
+     * @param tick The number of the current tick
+     */
+    @Override
+    public void tick(@NotNull TickEngine engine, long tick) {
+    }
+
+    // <editor-fold desc="Snapshots">
+
+    /**
+     * Creates a snapshot of the roster of the match, with the job of every player. The snapshot is consistent, no
+     * player joins, leaves or changes job while it is being created.
+     * @return The snapshot
+     * @see me.craftinators.barium.snapshot.SnapshotCodec
+     */
+    public final @NotNull MatchSnapshot createSnapshot() {
+        readLock.lock();
+        try {
+            final ImmutableMap.Builder<UUID, Job> roster = ImmutableMap.builderWithExpectedSize(players.size());
+            members.forEach((player, id) -> roster.put(player.getUniqueId(), player.getJob()));
+            return new MatchSnapshot(id, rosterVersion, roster.build());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Fills an empty match with the roster of a snapshot, for example to recover a match after a crash or to take over
+     * a match from another server. Every restored player is given the job from the snapshot, players that do not fit
+     * in the match are left as they are. No events are fired, since the players already joined the match the snapshot
+     * was taken of.
+     * @param snapshot The snapshot to restore
+     * @param players Gets the wrapper of a player by its UUID
+     * @return The amount of players that were restored, fewer than in the snapshot if the match is smaller
+     * @throws IllegalStateException If the match is not empty
+     */
+    public final int restoreSnapshot(@NotNull MatchSnapshot snapshot,
+                                     @NotNull Function<@NotNull UUID, @NotNull WrappedPlayer> players) {
+        final List<WrappedPlayer> restored = new ArrayList<>(snapshot.roster().size());
+        writeLock.lock();
+        try {
+            if (!this.players.isEmpty()) throw new IllegalStateException("Match must be empty to restore a snapshot.");
+
+            for (Map.Entry<UUID, Job> entry : snapshot.roster().entrySet()) {
+                final WrappedPlayer player = players.apply(entry.getKey());
+                // Players that do not fit keep their job. The job is set before inserting, as players are bucketed by it
+                if (!canInsertPlayer(player)) continue;
+
+                player.setJob(entry.getValue());
+                insertPlayer(player);
+                restored.add(player);
+            }
+
+            rosterSnapshot = null;
+            rosterVersion++;
+        } finally {
+            writeLock.unlock();
+        }
+
+        final MatchManager manager = this.manager;
+        if (manager != null) {
+            for (WrappedPlayer player : restored) {
+                manager.onPlayerAdded(this, player);
+            }
+        }
+        return restored.size();
+    }
+
+    // </editor-fold>
+
     // <editor-fold desc="Job Utility">
 
     /**
      * Balances the {@link Job} among players to ensure that the difference between the most populous job and the least populous job
      * is at most 1, or 0 if the number of players is a multiple of the number of jobs.
+     * <p>
+     * The whole transfer plan is worked out up front from the size of each job, so only the players that actually have
+     * to move are touched, and each of them is moved exactly once.
      * @return A map of players and their job transfers, indicating which job they were moved from and to.
      */
     public final @NotNull Map<@NotNull WrappedPlayer, @NotNull JobTransfer> balanceJobs() {
-        if (players.isEmpty()) return Collections.emptyMap();
+        return balanceJobs(ThreadLocalRandom.current());
+    }
 
-        final Map<WrappedPlayer, JobTransfer> transfers = new HashMap<>();
+    /**
+     * Balances the {@link Job} among players, picking the players to move with the given random number generator.
+     * @param random The random number generator to use
+     * @return A map of players and their job transfers, indicating which job they were moved from and to.
+     * @see #balanceJobs()
+     */
+    public final @NotNull Map<@NotNull WrappedPlayer, @NotNull JobTransfer> balanceJobs(@NotNull Random random) {
+        final BalanceJobsEvent event = new BalanceJobsEvent();
+        event.begin();
+        final long start = System.nanoTime();
 
-        final long targetDifference = players.size() % Job.values().length == 0 ? 0 : 1;
-        int difference = getLargestDifferenceBetweenJobs();
+        final Map<WrappedPlayer, JobTransfer> transfers;
+        final int playerCount;
+        writeLock.lock();
+        try {
+            transfers = planAndTransfer(random);
+            playerCount = players.size();
+        } finally {
+            writeLock.unlock();
+        }
 
-        while (difference > targetDifference) {
-            // Note that, since we already return earlier if this match is empty, these should NEVER throw an exception!
-            Job mostPopulousJob = getMostPopulousJob().orElseThrow(
-                    () -> new IllegalStateException("Tried to find most populous job in an empty match, this should not happen.")
-            );
-            Job leastPopulousJob = getLeastPopulousJob().orElseThrow(
-                    () -> new IllegalStateException("Tried to find least populous job in an empty match, this should not happen.")
-            );
+        // Recorded without holding the lock, so that journal writes and listeners never hold up the match
+        transfers.forEach(this::recordTransfer);
 
-            Set<WrappedPlayer> playersInMostPopulousJob = getPlayersInJob(mostPopulousJob);
+        BALANCE_JOBS_NANOS.record(System.nanoTime() - start);
+        BALANCE_JOBS_TRANSFERS.add(transfers.size());
+        if (event.shouldCommit()) {
+            event.match = id;
+            event.players = playerCount;
+            event.transfers = transfers.size();
+            event.commit();
+        }
+        return transfers;
+    }
+
+    // Must be called while holding the write lock. The transfers are left for the caller to record once it is released.
+    private @NotNull Map<WrappedPlayer, JobTransfer> planAndTransfer(@NotNull Random random) {
+        if (players.isEmpty()) return Collections.emptyMap();
 
-            WrappedPlayer playerToMove = Utility.getRandomElement(playersInMostPopulousJob, random);
+        final int[] targets = computeTargetCounts();
+        // Kept in the order of the transfers, so that they are recorded in that order
+        final Map<WrappedPlayer, JobTransfer> transfers = new LinkedHashMap<>();
 
-            JobTransfer transfer = transferPlayer(playerToMove, leastPopulousJob);
-            transfers.put(playerToMove, transfer);
+        // Every job above its target gives players to the jobs below theirs. Since the targets sum up to the amount of
+        // players, a job that has reached its target never needs to be looked at again.
+        int receiver = 0;
+        for (int donor = 0; donor < JOBS.length; donor++) {
+            final IntIndexedSet donorBucket = buckets[donor];
+            while (donorBucket.size() > targets[donor]) {
+                while (buckets[receiver].size() >= targets[receiver]) receiver++;
 
-            difference = getLargestDifferenceBetweenJobs();
+                WrappedPlayer playerToMove = members.get(donorBucket.getRandom(random));
+
+                JobTransfer transfer = moveToJob(playerToMove, JOBS[receiver]);
+                transfers.put(playerToMove, transfer);
+            }
         }
 
         return transfers;
     }
 
+    private int @NotNull [] computeTargetCounts() {
+        final int[] counts = new int[JOBS.length];
+        for (int i = 0; i < JOBS.length; i++) {
+            counts[i] = buckets[i].size();
+        }
+        return JobBalancer.computeTargetCounts(counts);
+    }
+
     /**
-     * Get the amount of players in each job
+     * Get the amount of players in each job. Jobs without any players are included with a count of 0.
      * @return A map with the amount of players in each job
      */
     public final @NotNull Map<@NotNull Job, @NotNull Integer> getCountPerJob() {
-        return players.stream()
-                .collect(Collectors.groupingBy(
-                        WrappedPlayer::getJob,
-                        () -> new EnumMap<>(Job.class),
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
+        EnumMap<Job, Integer> countPerJob = new EnumMap<>(Job.class);
+        readLock.lock();
+        try {
+            for (Job job : JOBS) {
+                countPerJob.put(job, buckets[job.ordinal()].size());
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return countPerJob;
+    }
+
+    /**
+     * Get the amount of players in a specific job.
+     * @param job The job to count the players of
+     * @return The amount of players in the specified job
+     */
+    public final int getCountInJob(@NotNull Job job) {
+        readLock.lock();
+        try {
+            return buckets[job.ordinal()].size();
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -111,10 +625,18 @@ public abstract class Match {
      * @return The largest difference between the amount of players in each job
      */
     public final int getLargestDifferenceBetweenJobs() {
-        Map<Job, Integer> countPerJob = getCountPerJob();
-
-        return countPerJob.values().stream().max(Integer::compareTo).orElse(0) -
-                countPerJob.values().stream().min(Integer::compareTo).orElse(0);
+        int max = 0;
+        int min = Integer.MAX_VALUE;
+        readLock.lock();
+        try {
+            for (IntIndexedSet bucket : buckets) {
+                max = Math.max(max, bucket.size());
+                min = Math.min(min, bucket.size());
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return max - min;
     }
 
     /**
@@ -122,9 +644,18 @@ public abstract class Match {
      * @return The most populous job
      */
     public final @NotNull Optional<@NotNull Job> getMostPopulousJob() {
-        return getCountPerJob().entrySet().stream()
-                .max(Map.Entry.comparingByValue()) // Gets the highest value
-                .map(Map.Entry::getKey); // Get the associated key
+        readLock.lock();
+        try {
+            if (players.isEmpty()) return Optional.empty();
+
+            int mostPopulous = 0;
+            for (int i = 1; i < JOBS.length; i++) {
+                if (buckets[i].size() > buckets[mostPopulous].size()) mostPopulous = i;
+            }
+            return Optional.of(JOBS[mostPopulous]);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -132,33 +663,98 @@ public abstract class Match {
      * @return The least populous job
      */
     public final @NotNull Optional<@NotNull Job> getLeastPopulousJob() {
-        return getCountPerJob().entrySet().stream()
-                .min(Map.Entry.comparingByValue()) // Gets the lowest value
-                .map(Map.Entry::getKey); // Get the associated key
+        readLock.lock();
+        try {
+            if (players.isEmpty()) return Optional.empty();
+
+            int leastPopulous = 0;
+            for (int i = 1; i < JOBS.length; i++) {
+                if (buckets[i].size() < buckets[leastPopulous].size()) leastPopulous = i;
+            }
+            return Optional.of(JOBS[leastPopulous]);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
      * Get the players in a specific job.
      * @param job The job to get the players from
-     * @return A set of players in the specified job
+     * @return An immutable set of players in the specified job
+     */
+    public final @NotNull Set<@NotNull WrappedPlayer> getPlayersInJob(@NotNull Job job) {
+        readLock.lock();
+        try {
+            return toPlayerSet(buckets[job.ordinal()]);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Gets a uniformly random player in a specific job, in constant time.
+     * @param job The job to get the random player from
+     * @return An optional containing a random player in the specified job, or an empty optional if the job has no players
      */
-    public final Set<WrappedPlayer> getPlayersInJob(Job job) {
-        return players.stream()
-                .filter(player -> player.getJob() == job)
-                .collect(Collectors.toSet());
+    public final @NotNull Optional<@NotNull WrappedPlayer> getRandomPlayerInJob(@NotNull Job job) {
+        readLock.lock();
+        try {
+            IntIndexedSet bucket = buckets[job.ordinal()];
+            if (bucket.isEmpty()) return Optional.empty();
+            return Optional.of(members.get(bucket.getRandom(ThreadLocalRandom.current())));
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
-     * Transfer a player to a new job.
+     * Transfer a player to a new job. If the player is in this match, the match's job index is kept up to date. The
+     * transfer is atomic, no other thread can observe the player in both or neither job.
      * @param player The player to transfer
      * @param newJob The new job to transfer the player to
      * @return A {@link JobTransfer} object representing the transfer
      */
     public final @NotNull JobTransfer transferPlayer(@NotNull WrappedPlayer player, @NotNull Job newJob) {
-        Job oldJob = player.getJob();
+        final JobTransfer transfer;
+        writeLock.lock();
+        try {
+            transfer = moveToJob(player, newJob);
+        } finally {
+            writeLock.unlock();
+        }
+
+        recordTransfer(player, transfer);
+        return transfer;
+    }
+
+    // Must be called while holding the write lock
+    private @NotNull JobTransfer moveToJob(@NotNull WrappedPlayer player, @NotNull Job newJob) {
+        // The wrapper kept by the match may be a different instance than the one passed in
+        final int id = player.getId();
+        final WrappedPlayer member = players.contains(id) ? members.get(id) : null;
+        Job oldJob = member != null ? member.getJob() : player.getJob();
+        if (member != null && oldJob != newJob) {
+            buckets[oldJob.ordinal()].remove(id);
+            buckets[newJob.ordinal()].add(id);
+            member.setJob(newJob);
+            rosterVersion++;
+        }
         player.setJob(newJob);
         return new JobTransfer(oldJob, newJob);
     }
 
+    // Must be called without holding the lock, as it writes to the journal and calls listeners
+    private void recordTransfer(@NotNull WrappedPlayer player, @NotNull JobTransfer transfer) {
+        if (transfer.isRedundant()) return;
+
+        final Journal journal = this.journal;
+        if (journal != null) {
+            journal.append(new JobTransferRecord(System.currentTimeMillis(), id, player.getUniqueId(), transfer.oldJob(), transfer.newJob()));
+        }
+        if (MatchEvents.JOB_TRANSFERRED.hasListeners()) {
+            MatchEvents.JOB_TRANSFERRED.publish(new JobTransferred(this, player, transfer));
+        }
+    }
+
     // </editor-fold>
 }
@@ -0,0 +1,285 @@
+package me.craftinators.barium.core;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import me.craftinators.barium.core.tick.TickEngine;
+import me.craftinators.barium.core.tick.Tickable;
+import me.craftinators.barium.journal.Journal;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns all live {@link Match}es. The manager keeps an index from each player's {@link UUID} to the match they are in,
+ * spreads the matches over {@link MatchShard}s that can be ticked independently, and places queued players into matches
+ * with free slots.
+ * <p>
+ * Matches tell their manager about every player that joins or leaves them, so the index stays up to date no matter how
+ * a player was added. A player is expected to be in at most one managed match at a time.
+ * <p>
+ * When registered with a {@link TickEngine}, the manager ticks every registered match, shard by shard, and places queued
+ * players into matches with a task that runs within the budget of the engine.
+ */
+public final class MatchManager implements Tickable {
+    private final MatchShard[] shards;
+
+    private final Map<UUID, Match> matchesByPlayer = new ConcurrentHashMap<>();
+    private final Set<Match> matches = ConcurrentHashMap.newKeySet();
+
+    // Matches with free slots, in the order they should be filled. The first match is filled up before the next one.
+    private final LinkedHashSet<Match> openMatches = new LinkedHashSet<>();
+    private final Queue<WrappedPlayer> waitingPlayers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitingPlayerCount = new AtomicInteger();
+
+    private volatile Journal journal = null;
+    // Whether a task placing queued players is scheduled, only used from the main thread
+    private boolean draining = false;
+
+    /**
+     * Creates a manager that spreads its matches over the given amount of shards.
+     * @param shardCount The amount of shards, must be positive
+     */
+    public MatchManager(int shardCount) {
+        if (shardCount <= 0) throw new IllegalArgumentException("Shard count must be positive.");
+
+        shards = new MatchShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new MatchShard(i);
+        }
+    }
+
+    /**
+     * Sets the journal that matches registered from now on record to, unless they already have a journal.
+     * @param journal The journal, or {@code null} to not give matches a journal
+     */
+    public void setJournal(@Nullable Journal journal) {
+        this.journal = journal;
+    }
+
+    // <editor-fold desc="Matches">
+
+    /**
+     * Registers a match with this manager, adding it to the shard with the least matches.
+     * @param match The match to register
+     * @throws IllegalStateException If the match is already registered with a manager
+     */
+    public void register(@NotNull Match match) {
+        synchronized (openMatches) {
+            if (match.manager != null) throw new IllegalStateException("Match is already registered with a manager.");
+            match.manager = this;
+            final Journal journal = this.journal;
+            if (journal != null && match.getJournal() == null) match.setJournal(journal);
+
+            matches.add(match);
+            leastLoadedShard().add(match);
+            if (match.getFreeSlots() > 0) openMatches.add(match);
+        }
+
+        for (WrappedPlayer player : match.getPlayers()) {
+            matchesByPlayer.put(player.getUniqueId(), match);
+        }
+    }
+
+    /**
+     * Unregisters a match from this manager, for example once it has ended. Its players are removed from the index, but
+     * stay in the match.
+     * @param match The match to unregister
+     * @return {@code true} if the match was unregistered, {@code false} if it was not registered with this manager
+     */
+    public boolean unregister(@NotNull Match match) {
+        synchronized (openMatches) {
+            if (match.manager != this) return false;
+            match.manager = null;
+
+            matches.remove(match);
+            for (MatchShard shard : shards) {
+                shard.remove(match);
+            }
+            openMatches.remove(match);
+        }
+
+        for (WrappedPlayer player : match.getPlayers()) {
+            matchesByPlayer.remove(player.getUniqueId(), match);
+        }
+        return true;
+    }
+
+    /**
+     * Gets all matches registered with this manager.
+     * @return An unmodifiable live view of the registered matches
+     */
+    public @NotNull Set<@NotNull Match> getMatches() {
+        return Collections.unmodifiableSet(matches);
+    }
+
+    /**
+     * Gets the match a player is in, in constant time.
+     * @param uuid The UUID of the player
+     * @return An optional containing the match the player is in, or an empty optional if the player is not in a match
+     */
+    public @NotNull Optional<@NotNull Match> getMatch(@NotNull UUID uuid) {
+        return Optional.ofNullable(matchesByPlayer.get(uuid));
+    }
+
+    /**
+     * Gets the shards of this manager.
+     * @return An immutable list of the shards, ordered by index
+     */
+    public @NotNull List<@NotNull MatchShard> getShards() {
+        return ImmutableList.copyOf(shards);
+    }
+
+    /**
+     * Gets the shard at the specified index.
+     * @param index The index of the shard
+     * @return The shard at the specified index
+     */
+    public @NotNull MatchShard getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * Gets the amount of shards of this manager.
+     * @return The amount of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // </editor-fold>
+
+    /**
+     * Ticks every registered match, shard by shard, and schedules a task that places queued players into matches if
+     * there are any and none is scheduled yet.
+     * @param engine The engine that is ticking
+     * @param tick The number of the current tick
+     */
+    @Override
+    public void tick(@NotNull TickEngine engine, long tick) {
+        for (MatchShard shard : shards) {
+            shard.tick(engine, tick);
+        }
+
+        if (!draining && waitingPlayerCount.get() > 0 && hasOpenMatches()) {
+            draining = true;
+            engine.schedule(budget -> {
+                do {
+                    if (!placeBatch(null)) return true;
+                } while (budget.hasTimeRemaining());
+                return false;
+            }).whenComplete((ignored, exception) -> draining = false);
+        }
+    }
+
+    // <editor-fold desc="Queue">
+
+    /**
+     * Adds a player to the queue of players waiting for a match. Can be called from any thread.
+     * @param player The player to queue
+     */
+    public void enqueue(@NotNull WrappedPlayer player) {
+        waitingPlayers.add(player);
+        waitingPlayerCount.incrementAndGet();
+    }
+
+    /**
+     * Gets the amount of players waiting for a match.
+     * @return The amount of queued players
+     */
+    public int getQueueSize() {
+        return waitingPlayerCount.get();
+    }
+
+    /**
+     * Places as many queued players as possible into matches with free slots, all at once. The match that has been open
+     * the longest is filled up first, with a single {@link Match#addPlayers(Collection)} call per match. Players that
+     * are already in a match are skipped, and players that were cancelled are dropped from the queue. Must be called
+     * from the main thread.
+     * <p>
+     * While the manager is registered with a {@link TickEngine}, the queue is already drained every tick, spread over
+     * as many ticks as the budget of the engine requires. Calling this is only needed to place the players right away.
+     * @return An immutable map of the placed players and the match they were placed into
+     */
+    public @NotNull Map<@NotNull WrappedPlayer, @NotNull Match> drainQueue() {
+        final ImmutableMap.Builder<WrappedPlayer, Match> placements = ImmutableMap.builder();
+        boolean placing = true;
+        while (placing) {
+            placing = placeBatch(placements);
+        }
+        return placements.buildKeepingLast();
+    }
+
+    // </editor-fold>
+
+    void onPlayerAdded(@NotNull Match match, @NotNull WrappedPlayer player) {
+        matchesByPlayer.put(player.getUniqueId(), match);
+        closeIfFull(match);
+    }
+
+    void onPlayerRemoved(@NotNull Match match, @NotNull WrappedPlayer player) {
+        matchesByPlayer.remove(player.getUniqueId(), match);
+
+        synchronized (openMatches) {
+            if (match.manager == this && match.getFreeSlots() > 0) openMatches.add(match);
+        }
+    }
+
+    // Places the next batch of queued players into the match that has been open the longest. Returns false once there
+    // are no queued players or no open matches left.
+    private boolean placeBatch(@Nullable ImmutableMap.Builder<WrappedPlayer, Match> placements) {
+        if (waitingPlayers.isEmpty()) return false;
+
+        final Match match;
+        synchronized (openMatches) {
+            if (openMatches.isEmpty()) return false;
+            match = openMatches.iterator().next();
+        }
+
+        final int freeSlots = match.getFreeSlots();
+        if (freeSlots <= 0) {
+            // Filled up without this manager noticing, e.g. by a concurrent join
+            closeIfFull(match);
+            return true;
+        }
+
+        final List<WrappedPlayer> batch = new ArrayList<>(Math.min(freeSlots, waitingPlayerCount.get()));
+        WrappedPlayer player;
+        while (batch.size() < freeSlots && (player = waitingPlayers.poll()) != null) {
+            waitingPlayerCount.decrementAndGet();
+            if (!matchesByPlayer.containsKey(player.getUniqueId())) batch.add(player);
+        }
+
+        final Set<WrappedPlayer> added = match.addPlayers(batch);
+        if (placements != null) {
+            for (WrappedPlayer addedPlayer : added) {
+                placements.put(addedPlayer, match);
+            }
+        }
+        // If every player of the batch was cancelled, the match is still open and is tried again with the next batch
+        return true;
+    }
+
+    private boolean hasOpenMatches() {
+        synchronized (openMatches) {
+            return !openMatches.isEmpty();
+        }
+    }
+
+    private void closeIfFull(@NotNull Match match) {
+        synchronized (openMatches) {
+            if (match.getFreeSlots() <= 0) openMatches.remove(match);
+        }
+    }
+
+    private @NotNull MatchShard leastLoadedShard() {
+        MatchShard leastLoaded = shards[0];
+        for (MatchShard shard : shards) {
+            if (shard.size() < leastLoaded.size()) leastLoaded = shard;
+        }
+        return leastLoaded;
+    }
+}
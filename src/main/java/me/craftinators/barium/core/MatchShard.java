@@ -0,0 +1,66 @@
+package me.craftinators.barium.core;
+
+import me.craftinators.barium.core.tick.TickEngine;
+import me.craftinators.barium.core.tick.Tickable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A group of matches owned by a {@link MatchManager}. Shards are independent of each other, so they can be ticked
+ * separately, for example one shard per tick, or each on its own thread.
+ */
+public final class MatchShard implements Tickable {
+    private final int index;
+    private final Set<Match> matches = ConcurrentHashMap.newKeySet();
+
+    MatchShard(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Gets the index of this shard within its manager.
+     * @return The index of this shard
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the matches in this shard.
+     * @return An unmodifiable live view of the matches in this shard
+     */
+    public @NotNull Set<@NotNull Match> getMatches() {
+        return Collections.unmodifiableSet(matches);
+    }
+
+    /**
+     * Gets the amount of matches in this shard.
+     * @return The amount of matches in this shard
+     */
+    public int size() {
+        return matches.size();
+    }
+
+    /**
+     * Ticks every match in this shard.
+     * @param engine The engine that is ticking
+     * @param tick The number of the current tick
+     */
+    @Override
+    public void tick(@NotNull TickEngine engine, long tick) {
+        for (Match match : matches) {
+            match.tick(engine, tick);
+        }
+    }
+
+    void add(@NotNull Match match) {
+        matches.add(match);
+    }
+
+    void remove(@NotNull Match match) {
+        matches.remove(match);
+    }
+}
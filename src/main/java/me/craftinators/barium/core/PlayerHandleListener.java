@@ -0,0 +1,25 @@
+package me.craftinators.barium.core;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps the {@link org.bukkit.entity.Player} references cached by {@link WrappedPlayer} up to date, and holds the
+ * {@link PlayerIds identifier} of every online player. The reference is set before any other plugin handles a join,
+ * and cleared after every other plugin has handled a quit, so it is valid for the whole time the player is online.
+ */
+public final class PlayerHandleListener implements Listener {
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(@NotNull PlayerJoinEvent event) {
+        WrappedPlayer.onPlayerJoin(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
+        WrappedPlayer.onPlayerQuit(event.getPlayer());
+    }
+}
@@ -0,0 +1,115 @@
+package me.craftinators.barium.core;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hands out a small int identifier for every player that is in use, so that hot paths can keep players in
+ * {@link me.craftinators.barium.IntIndexedSet}s and {@link me.craftinators.barium.IntObjectMap}s instead of hashing
+ * UUIDs. Identifiers are reference counted: a player holds one reference while online, and one for every match it is
+ * in, so the identifier stays the same for as long as the player is online or in a match. Once the last reference is
+ * released, the identifier is given to the next player that needs one. The smallest free identifier is always handed
+ * out first, which keeps the identifiers dense.
+ * <p>
+ * Looking up the identifier of a UUID and the UUID of an identifier never blocks, acquiring and releasing does.
+ */
+public final class PlayerIds {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final Object LOCK = new Object();
+    private static final Map<UUID, Integer> IDS = new ConcurrentHashMap<>();
+    // Replaced by a larger copy when it is full, entries are only written while holding the lock
+    private static volatile AtomicReferenceArray<UUID> uuids = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    // Guarded by the lock
+    private static int[] referenceCounts = new int[INITIAL_CAPACITY];
+    private static final BitSet USED = new BitSet(INITIAL_CAPACITY);
+
+    private PlayerIds() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    /**
+     * Acquires a reference to the identifier of a player, handing out a new identifier if the player has none.
+     * @param uuid The UUID of the player
+     * @return The identifier of the player
+     */
+    public static int acquire(@NotNull UUID uuid) {
+        synchronized (LOCK) {
+            final Integer existing = IDS.get(uuid);
+            if (existing != null) {
+                referenceCounts[existing]++;
+                return existing;
+            }
+
+            final int id = USED.nextClearBit(0);
+            USED.set(id);
+            if (id >= referenceCounts.length) grow();
+            referenceCounts[id] = 1;
+            uuids.set(id, uuid);
+            IDS.put(uuid, id);
+            return id;
+        }
+    }
+
+    /**
+     * Releases a reference to the identifier of a player. The identifier is freed once every reference is released.
+     * Does nothing if the player has no identifier.
+     * @param uuid The UUID of the player
+     */
+    public static void release(@NotNull UUID uuid) {
+        synchronized (LOCK) {
+            final Integer id = IDS.get(uuid);
+            if (id == null || --referenceCounts[id] > 0) return;
+
+            IDS.remove(uuid);
+            uuids.set(id, null);
+            USED.clear(id);
+        }
+    }
+
+    /**
+     * Gets the identifier of a player.
+     * @param uuid The UUID of the player
+     * @return The identifier of the player, or -1 if the player has none
+     */
+    public static int lookup(@NotNull UUID uuid) {
+        final Integer id = IDS.get(uuid);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Gets the UUID of the player an identifier belongs to.
+     * @param id The identifier
+     * @return The UUID of the player, or {@code null} if the identifier is not in use
+     */
+    public static @Nullable UUID getUniqueId(int id) {
+        final AtomicReferenceArray<UUID> uuids = PlayerIds.uuids;
+        return id >= 0 && id < uuids.length() ? uuids.get(id) : null;
+    }
+
+    /**
+     * Gets the amount of identifiers in use.
+     * @return The amount of identifiers in use
+     */
+    public static int size() {
+        return IDS.size();
+    }
+
+    // Must hold the lock
+    private static void grow() {
+        final AtomicReferenceArray<UUID> current = uuids;
+        final AtomicReferenceArray<UUID> grown = new AtomicReferenceArray<>(current.length() * 2);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        uuids = grown;
+        referenceCounts = Arrays.copyOf(referenceCounts, referenceCounts.length * 2);
+    }
+}
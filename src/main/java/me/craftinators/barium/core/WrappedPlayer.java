@@ -1,17 +1,28 @@
 package me.craftinators.barium.core;
 
+import com.google.common.collect.MapMaker;
 import me.craftinators.barium.Barium;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
 
 public abstract class WrappedPlayer {
+    // One handle per UUID, shared by every wrapper of that player. The values are weak, so a handle disappears together
+    // with the last wrapper that uses it, and players without a wrapper are never tracked.
+    private static final ConcurrentMap<UUID, PlayerHandle> HANDLES = new MapMaker().weakValues().makeMap();
+
     protected final Barium plugin;
     protected final UUID uuid;
 
-    private Job job;
+    private volatile Job job;
+    // Acquired on first use rather than in the constructor, so that creating a wrapper does not touch the server
+    private volatile PlayerHandle handle = null;
+    // Cached from PlayerIds, checked against the registry on every use since the identifier may have been freed
+    private volatile int id = -1;
 
     public WrappedPlayer(@NotNull Barium plugin, @NotNull UUID uuid, @NotNull Job job) {
         this.plugin = plugin;
@@ -32,9 +43,38 @@ public abstract class WrappedPlayer {
      * @return Optional containing the Player object, or an empty Optional if the player is not online
      */
     public final @NotNull Optional<@NotNull Player> getPlayer() {
-        return Optional.ofNullable(
-                plugin.getServer().getPlayer(uuid)
-        );
+        return Optional.ofNullable(getPlayerOrNull());
+    }
+
+    /**
+     * Returns the {@link Player} associated with this wrapper, or {@code null} if the player is not online. Unlike
+     * {@link #getPlayer()} this does not allocate, and after the first call it does not look the player up either, as
+     * the reference is kept up to date by {@link PlayerHandleListener}.
+     * @return The Player object, or {@code null} if the player is not online
+     */
+    public final @Nullable Player getPlayerOrNull() {
+        PlayerHandle handle = this.handle;
+        if (handle == null) this.handle = handle = HANDLES.computeIfAbsent(uuid, this::createHandle);
+        return handle.player;
+    }
+
+    /**
+     * Checks if the player associated with this wrapper is online.
+     * @return {@code true} if the player is online, {@code false} otherwise
+     */
+    public final boolean isOnline() {
+        return getPlayerOrNull() != null;
+    }
+
+    /**
+     * Returns the identifier {@link PlayerIds} gave the player associated with this wrapper. The player has one while
+     * online or in a match.
+     * @return The identifier of the player, or -1 if the player has none
+     */
+    public final int getId() {
+        final int id = this.id;
+        if (id >= 0 && uuid.equals(PlayerIds.getUniqueId(id))) return id;
+        return this.id = PlayerIds.lookup(uuid);
     }
 
     /**
@@ -46,7 +86,8 @@ public abstract class WrappedPlayer {
     }
 
     /**
-     * Sets the job of the player associated with this wrapper
+     * Sets the job of the player associated with this wrapper. Players that are in a {@link Match} should be moved with
+     * {@link Match#transferPlayer(WrappedPlayer, Job)} instead, so that the match can keep track of its jobs.
      * @param newJob New job of the player
      */
     public final void setJob(@NotNull Job newJob) {
@@ -61,4 +102,33 @@ public abstract class WrappedPlayer {
         WrappedPlayer otherPlayer = (WrappedPlayer) obj;
         return uuid.equals(otherPlayer.uuid);
     }
+
+    @Override
+    public int hashCode() {
+        return uuid.hashCode();
+    }
+
+    private @NotNull PlayerHandle createHandle(@NotNull UUID uuid) {
+        return new PlayerHandle(plugin.getServer().getPlayer(uuid));
+    }
+
+    static void onPlayerJoin(@NotNull Player player) {
+        PlayerIds.acquire(player.getUniqueId());
+        final PlayerHandle handle = HANDLES.get(player.getUniqueId());
+        if (handle != null) handle.player = player;
+    }
+
+    static void onPlayerQuit(@NotNull Player player) {
+        PlayerIds.release(player.getUniqueId());
+        final PlayerHandle handle = HANDLES.get(player.getUniqueId());
+        if (handle != null) handle.player = null;
+    }
+
+    private static final class PlayerHandle {
+        private volatile Player player;
+
+        private PlayerHandle(@Nullable Player player) {
+            this.player = player;
+        }
+    }
 }
@@ -1,33 +1,111 @@
 package me.craftinators.barium.core.monster;
 
-import me.craftinators.barium.Utility;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.EnumSet;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
+/**
+ * A monster that can be selected, identified by its name. Which monsters exist, their weights and their attributes
+ * come from a {@link MonsterTable}, usually compiled from the config, so the roster can change without a rebuild.
+ * <p>
+ * There is exactly one instance per name, handed out by {@link #named(String)}, which also gives every monster a small
+ * int {@link #id() identifier}. Identifiers are handed out densely in the order monsters are first named and never
+ * change or get reused while the server runs, so tables, pools and wave plans can keep per-monster state in arrays
+ * indexed by identifier, and a monster that is dropped from the roster by a reload keeps its identifier. Identifiers
+ * are not stable across restarts, anything that is persisted refers to monsters by {@link #name()}.
+ */
+public final class Monster {
+    /**
+     * The most characters a monster name can have.
+     */
+    public static final int MAX_NAME_LENGTH = 64;
 
-public enum Monster {
-    TEMPORARY_MONSTER_1(MonsterAttribute.MELEE, MonsterAttribute.HORDE), // zombie
-    TEMPORARY_MONSTER_2(MonsterAttribute.RANGED), // skeleton
-    TEMPORARY_MONSTER_3(MonsterAttribute.RANGED, MonsterAttribute.SURGE, MonsterAttribute.DEBUFF), // spider
-    TEMPORARY_MONSTER_4(MonsterAttribute.MELEE, MonsterAttribute.SUPPORT, MonsterAttribute.SURGE), // slime
-    TEMPORARY_MONSTER_5(MonsterAttribute.MELEE, MonsterAttribute.HORDE, MonsterAttribute.DESTROY), // Silverfish
-    TEMPORARY_MONSTER_6(MonsterAttribute.RANGED, MonsterAttribute.DEBUFF), // Guardian
-    TEMPORARY_MONSTER_7(MonsterAttribute.SUPPORT, MonsterAttribute.SURGE), // Enderman
-    TEMPORARY_MONSTER_8(MonsterAttribute.DESTROY), // Creeper
-    TEMPORARY_MONSTER_9(MonsterAttribute.DESTROY); // Ravager
+    private static final Pattern NAME = Pattern.compile("[A-Z0-9_]{1," + MAX_NAME_LENGTH + "}");
 
-    private final EnumSet<MonsterAttribute> attributes;
+    private static final Object LOCK = new Object();
+    private static final Map<String, Monster> BY_NAME = new ConcurrentHashMap<>();
+    // Replaced by a longer copy when a monster is named, entries are only written while holding the lock
+    private static volatile Monster[] byId = new Monster[0];
 
-    Monster(MonsterAttribute... attributes) {
-        this.attributes = Utility.createEnumSetFromArray(attributes);
+    private final String name;
+    private final int id;
+
+    private Monster(@NotNull String name, int id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    /**
+     * Gets the monster with a name, handing out a new identifier if no monster had the name before. Names are not case
+     * sensitive and are stored in upper case.
+     * @param name The name of the monster, letters, digits and underscores only
+     * @return The monster
+     * @throws IllegalArgumentException If the name is empty, too long or contains other characters
+     */
+    public static @NotNull Monster named(@NotNull String name) {
+        final String normalized = name.toUpperCase(Locale.ROOT);
+        final Monster existing = BY_NAME.get(normalized);
+        if (existing != null) return existing;
+
+        if (!NAME.matcher(normalized).matches()) throw new IllegalArgumentException("Invalid monster name \"" + name + "\".");
+        synchronized (LOCK) {
+            return BY_NAME.computeIfAbsent(normalized, ignored -> {
+                final Monster[] current = byId;
+                final Monster monster = new Monster(normalized, current.length);
+                final Monster[] grown = Arrays.copyOf(current, current.length + 1);
+                grown[monster.id] = monster;
+                byId = grown;
+                return monster;
+            });
+        }
+    }
+
+    /**
+     * Gets the monster with an identifier.
+     * @param id The identifier
+     * @return The monster, or {@code null} if no monster has the identifier
+     */
+    public static @Nullable Monster byId(int id) {
+        final Monster[] byId = Monster.byId;
+        return id >= 0 && id < byId.length ? byId[id] : null;
+    }
+
+    /**
+     * Gets the amount of monsters that have been named, which is one more than the highest identifier.
+     * @return The amount of monsters
+     */
+    public static int count() {
+        return byId.length;
+    }
+
+    // Never modified once published, so it can be shared as is
+    static @NotNull Monster @NotNull [] snapshot() {
+        return byId;
+    }
+
+    /**
+     * Gets the name of this monster.
+     * @return The name, in upper case
+     */
+    public @NotNull String name() {
+        return name;
     }
 
-    public @NotNull Iterable<@NotNull MonsterAttribute> getAttributes() {
-        return attributes;
+    /**
+     * Gets the identifier of this monster, which is unique for the lifetime of the server.
+     * @return The identifier
+     */
+    public int id() {
+        return id;
     }
 
-    public boolean containsAttributes(@NotNull MonsterAttribute attribute) {
-        return attributes.contains(attribute);
+    @Override
+    public @NotNull String toString() {
+        return name;
     }
 }
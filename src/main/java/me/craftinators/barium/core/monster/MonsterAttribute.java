@@ -1,11 +0,0 @@
-package me.craftinators.barium.core.monster;
-
-public enum MonsterAttribute {
-    DESTROY,
-    SURGE,
-    HORDE,
-    MELEE,
-    RANGED,
-    SUPPORT,
-    DEBUFF
-}
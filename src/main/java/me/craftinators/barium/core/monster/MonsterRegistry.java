@@ -0,0 +1,34 @@
+package me.craftinators.barium.core.monster;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the {@link MonsterTable} in use. The table is replaced as a whole, so a reload never leaves selectors with a
+ * half updated roster; selectors that follow the registry switch to the new table on their next selection.
+ */
+public final class MonsterRegistry {
+    private static final AtomicReference<MonsterTable> TABLE = new AtomicReference<>(MonsterTable.DEFAULT);
+
+    private MonsterRegistry() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    /**
+     * Gets the table in use.
+     * @return The table in use
+     */
+    public static @NotNull MonsterTable getTable() {
+        return TABLE.get();
+    }
+
+    /**
+     * Replaces the table in use.
+     * @param table The new table
+     * @return The table that was in use before
+     */
+    public static @NotNull MonsterTable setTable(@NotNull MonsterTable table) {
+        return TABLE.getAndSet(table);
+    }
+}
@@ -1,104 +1,315 @@
 package me.craftinators.barium.core.monster;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableSet;
+import me.craftinators.barium.event.MatchEvents;
+import me.craftinators.barium.event.MonsterSelected;
+import me.craftinators.barium.journal.Journal;
+import me.craftinators.barium.journal.MonsterSelectionRecord;
+import me.craftinators.barium.metrics.Histogram;
+import me.craftinators.barium.metrics.Metrics;
+import me.craftinators.barium.metrics.MonsterSelectionEvent;
+import me.craftinators.barium.snapshot.SelectorSnapshot;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 public class MonsterSelector {
-    private static final ImmutableMap<Monster, Double> INITIAL_MONSTER_PROBABILITIES;
+    /**
+     * The amount of previously selected monsters that are remembered by default.
+     */
+    public static final int DEFAULT_HISTORY_SIZE = MonsterSelectorSettings.DEFAULT_HISTORY_SIZE;
 
-    static {
-        EnumMap<Monster, Double> initialMonsterProbabilities = new EnumMap<>(Monster.class);
-        double defaultChance = 1d / Monster.values().length;
-        for (Monster monster : Monster.values()) {
-            initialMonsterProbabilities.put(monster, defaultChance);
-        }
-        INITIAL_MONSTER_PROBABILITIES = Maps.immutableEnumMap(initialMonsterProbabilities);
+    private static final Histogram SELECT_NANOS = Metrics.histogram("monster.select.nanos");
+    // Kept apart from single selections, a wave takes time in proportion to its size
+    private static final Histogram SELECT_WAVE_NANOS = Metrics.histogram("monster.select.wave.nanos");
+
+    // Unnormalized weight of each monster, indexed by identifier and as long as the table covers. Updated once per
+    // selection instead of being replayed from the history every time.
+    private double[] weights;
+    private double totalWeight;
+
+    // Ring buffer of the most recently selected monsters, the oldest entry is overwritten once it is full
+    private final Monster[] history;
+    private int historyStart = 0;
+    private int historySize = 0;
+
+    // Replaced by the table of the registry when it changes, if this selector follows the registry
+    private final boolean followsRegistry;
+    private MonsterTable table;
+    private double retention;
+    private final RandomGenerator random;
+
+    private @Nullable Journal journal = null;
+    private long journalMatchId;
+
+    /**
+     * Creates a selector that uses the {@link MonsterRegistry#getTable() table in use} and its settings. When the table
+     * in use is replaced, the selector switches to the new table on its next selection and starts over from the new
+     * initial weights, keeping its history.
+     * @param random The random number generator to use
+     */
+    public MonsterSelector(@NotNull RandomGenerator random) {
+        this(random, MonsterRegistry.getTable(), true);
     }
 
-    // TODO: Would like to make "DEFAULT_REDUCTION_PERCENTAGE" and "MINIMUM_PROBABILITY" configurable
-    private static final double DEFAULT_REDUCTION_PERCENTAGE = 50d / 100d; // 50%
-    private static final double REDUCTION_FACTOR = 1 - DEFAULT_REDUCTION_PERCENTAGE;
-    private static final double PROMOTION_FACTOR = 1 + DEFAULT_REDUCTION_PERCENTAGE / (Monster.values().length - 1);
-    private static final double MINIMUM_PROBABILITY = 1d / 100d; // 1%
+    /**
+     * Creates a selector with a bounded history and an optional exponential decay. With a decay rate above 0, every
+     * weight is moved back towards its initial value by that fraction before a new selection is applied, so that old
+     * selections gradually stop influencing which monsters come next.
+     * @param random The random number generator to use
+     * @param historySize The amount of previously selected monsters to remember, must be positive
+     * @param decayRate The fraction by which the weights decay per selection, between 0 (no decay) and 1 (inclusive)
+     * @throws IllegalArgumentException If the history size or decay rate is out of range
+     */
+    public MonsterSelector(@NotNull RandomGenerator random, int historySize, double decayRate) {
+        this(random, withHistory(MonsterRegistry.getTable(), historySize, decayRate));
+    }
 
-    private final ArrayList<Monster> previouslySelectedMonsters = new ArrayList<>();
-    private final Random random;
+    /**
+     * Creates a selector with the roster of the {@link MonsterRegistry#getTable() table in use}, but with the given
+     * settings. The selector keeps using that roster when the table in use is replaced.
+     * @param random The random number generator to use
+     * @param settings The settings of the selector
+     */
+    public MonsterSelector(@NotNull RandomGenerator random, @NotNull MonsterSelectorSettings settings) {
+        this(random, MonsterRegistry.getTable().withSettings(settings));
+    }
+
+    /**
+     * Creates a selector that always uses the given table.
+     * @param random The random number generator to use
+     * @param table The table to use
+     */
+    public MonsterSelector(@NotNull RandomGenerator random, @NotNull MonsterTable table) {
+        this(random, table, false);
+    }
 
-    public MonsterSelector(Random random) {
+    private MonsterSelector(@NotNull RandomGenerator random, @NotNull MonsterTable table, boolean followsRegistry) {
         this.random = random;
+        this.followsRegistry = followsRegistry;
+        this.history = new Monster[table.getSettings().historySize()];
+        useTable(table);
     }
 
     public @NotNull Monster selectMonster() {
         // Selects a monster, with monsters that contain the tags in the previously selected monsters being less likely
         // to be selected.
-        EnumMap<Monster, Double> monsterProbabilities = generateUnnormalizedMonsterProbabilities();
+        final MonsterSelectionEvent event = new MonsterSelectionEvent();
+        event.begin();
+        final long start = System.nanoTime();
 
-        // Normalize the probabilities so they sum to 1
-        normalizeProbabilities(monsterProbabilities);
+        refreshTable();
+        Monster monster = selectWeightedMonster();
+        recordSelection(monster);
 
-        // And then select a monster
-        return selectWeightedMonster(monsterProbabilities);
+        recordMetrics(event, SELECT_NANOS, start, 1);
+        return monster;
     }
 
-    public @NotNull EnumSet<@NotNull Monster> getMostProbableMonsters() {
-        EnumMap<Monster, Double> monsterProbabilities = generateUnnormalizedMonsterProbabilities();
+    /**
+     * Selects all monsters of a wave at once, with the same outcome as calling {@link #selectMonster()} once per
+     * monster. Every monster is recorded right after it is drawn, so earlier monsters of the wave reduce the
+     * probabilities of later ones, and the history ends with the monsters in the order they were drawn. Every monster is
+     * also published and journaled on its own, only the JFR event and the timing are recorded once for the whole wave,
+     * with the time taken in {@code monster.select.wave.nanos} rather than in {@code monster.select.nanos}.
+     * @param count The amount of monsters to select
+     * @return The selected monsters
+     * @throws IllegalArgumentException If the count is negative
+     */
+    public @NotNull WavePlan selectMonsters(int count) {
+        if (count < 0) throw new IllegalArgumentException("Count cannot be negative.");
 
-        // No need to normalize the probabilities, as we just want the most probable monsters
-        final double highestProbability = Collections.max(monsterProbabilities.values());
+        final MonsterSelectionEvent event = new MonsterSelectionEvent();
+        event.begin();
+        final long start = System.nanoTime();
 
-        EnumSet<Monster> mostProbableMonsters = EnumSet.noneOf(Monster.class);
-        for (Map.Entry<Monster, Double> entry : monsterProbabilities.entrySet()) {
-            if (entry.getValue() == highestProbability) {
-                mostProbableMonsters.add(entry.getKey());
-            }
+        refreshTable();
+        final int[] counts = new int[weights.length];
+        for (int i = 0; i < count; i++) {
+            final Monster monster = selectWeightedMonster();
+            recordSelection(monster);
+            counts[monster.id()]++;
         }
-        return mostProbableMonsters;
-    }
-
-    private EnumMap<Monster, Double> generateUnnormalizedMonsterProbabilities() {
-        EnumMap<Monster, Double> unnormalizedMonsterProbabilities = new EnumMap<>(INITIAL_MONSTER_PROBABILITIES);
-
-        for (Monster previouslySelectedMonster : previouslySelectedMonsters) {
-            for (MonsterAttribute attribute : previouslySelectedMonster.getAttributes()) {
-                for (Monster monster : Monster.values()) {
-                    // Reduce the probability of monsters with the same attribute, but increase the probability of
-                    // monsters not with the same attribute
-                    final double currentProbability = unnormalizedMonsterProbabilities.get(monster);
-                    if (monster.containsAttributes(attribute)) {
-                        unnormalizedMonsterProbabilities.put(monster,
-                                Math.max(currentProbability * REDUCTION_FACTOR, MINIMUM_PROBABILITY));
-                    } else {
-                        unnormalizedMonsterProbabilities.put(monster, currentProbability * PROMOTION_FACTOR);
-                    }
-                }
+
+        recordMetrics(event, SELECT_WAVE_NANOS, start, count);
+        return new WavePlan(counts);
+    }
+
+    /**
+     * Sets the journal the selections of this selector are recorded to.
+     * @param journal The journal, or {@code null} to stop recording
+     * @param matchId The {@link me.craftinators.barium.core.Match#getId() identifier} of the match the selections are for
+     */
+    public void setJournal(@Nullable Journal journal, long matchId) {
+        this.journal = journal;
+        this.journalMatchId = matchId;
+    }
+
+    /**
+     * Gets the settings of this selector.
+     * @return The settings of this selector
+     */
+    public @NotNull MonsterSelectorSettings getSettings() {
+        return table.getSettings();
+    }
+
+    /**
+     * Gets the table this selector currently uses.
+     * @return The table in use by this selector
+     */
+    public @NotNull MonsterTable getTable() {
+        return table;
+    }
+
+    public @NotNull Set<@NotNull Monster> getMostProbableMonsters() {
+        // No need to normalize the weights, as we just want the most probable monsters
+        double highestWeight = weights[0];
+        for (double weight : weights) {
+            highestWeight = Math.max(highestWeight, weight);
+        }
+
+        ImmutableSet.Builder<Monster> mostProbableMonsters = ImmutableSet.builder();
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] == highestWeight) {
+                mostProbableMonsters.add(table.monster(i));
             }
         }
+        return mostProbableMonsters.build();
+    }
+
+    /**
+     * Gets the remembered previously selected monsters, at most as many as the history size of this selector.
+     * @return An immutable list of the previously selected monsters, from the oldest to the most recent
+     */
+    public @NotNull List<@NotNull Monster> getPreviouslySelectedMonsters() {
+        ImmutableList.Builder<Monster> builder = ImmutableList.builderWithExpectedSize(historySize);
+        for (int i = 0; i < historySize; i++) {
+            builder.add(history[(historyStart + i) % history.length]);
+        }
+        return builder.build();
+    }
 
-        return unnormalizedMonsterProbabilities;
+    /**
+     * Creates a snapshot of the weights and history of this selector.
+     * @return The snapshot
+     * @see me.craftinators.barium.snapshot.SnapshotCodec
+     */
+    public @NotNull SelectorSnapshot createSnapshot() {
+        final ImmutableMap.Builder<Monster, Double> snapshotWeights = ImmutableMap.builder();
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0d) snapshotWeights.put(table.monster(i), weights[i]);
+        }
+        return new SelectorSnapshot(snapshotWeights.build(), getPreviouslySelectedMonsters());
     }
 
-    private void normalizeProbabilities(EnumMap<Monster, Double> monsterProbabilities) {
-        double sum = monsterProbabilities.values().stream().mapToDouble(Double::doubleValue).sum();
-        for (Monster monster : Monster.values()) {
-            monsterProbabilities.put(monster, monsterProbabilities.get(monster) / sum);
+    /**
+     * Replaces the weights and history of this selector with those of a snapshot, so that it continues where the
+     * selector the snapshot was taken of left off. The snapshot should be taken of a selector with the same roster,
+     * monsters of the roster that have no weight in the snapshot get a weight of 0. If the history of the snapshot is
+     * longer than the history size of this selector, only the most recent monsters are kept.
+     * @param snapshot The snapshot to restore
+     * @throws IllegalArgumentException If the snapshot has negative weights, a weight for a monster that is not in the
+     *                                  roster, or no positive weight
+     */
+    public void restoreSnapshot(@NotNull SelectorSnapshot snapshot) {
+        // Switch to the table in use first, otherwise the restored weights would be reset on the next selection
+        refreshTable();
+
+        final double[] restoredWeights = new double[weights.length];
+        double restoredTotalWeight = 0d;
+        for (Map.Entry<Monster, Double> entry : snapshot.weights().entrySet()) {
+            final double weight = entry.getValue();
+            if (!(weight >= 0d)) throw new IllegalArgumentException("Weights cannot be negative.");
+            if (weight > 0d && !table.isInRoster(entry.getKey())) throw new IllegalArgumentException("Snapshot has a weight for " + entry.getKey() + ", which is not in the roster.");
+            if (weight == 0d) continue;
+
+            restoredWeights[entry.getKey().id()] = weight;
+            restoredTotalWeight += weight;
+        }
+        if (!(restoredTotalWeight > 0d)) throw new IllegalArgumentException("At least one weight must be positive.");
+
+        weights = restoredWeights;
+        totalWeight = restoredTotalWeight;
+
+        final List<Monster> restoredHistory = snapshot.history();
+        final int skipped = Math.max(0, restoredHistory.size() - history.length);
+        historyStart = 0;
+        historySize = restoredHistory.size() - skipped;
+        for (int i = 0; i < historySize; i++) {
+            history[i] = restoredHistory.get(skipped + i);
         }
     }
 
-    private Monster selectWeightedMonster(EnumMap<Monster, Double> monsterProbabilities) {
-        double randomValue = random.nextDouble();
-        double cumulativeProbability = 0d;
+    private static void recordMetrics(@NotNull MonsterSelectionEvent event, @NotNull Histogram histogram, long start,
+                                      int count) {
+        histogram.record(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.count = count;
+            event.commit();
+        }
+    }
 
-        for (Map.Entry<Monster, Double> entry : monsterProbabilities.entrySet()) {
-            cumulativeProbability += entry.getValue();
-            if (randomValue <= cumulativeProbability) {
-                previouslySelectedMonsters.add(entry.getKey());
-                return entry.getKey();
+    private void recordSelection(@NotNull Monster selectedMonster) {
+        if (retention < 1d) {
+            final double[] initialWeights = table.initialWeights();
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = initialWeights[i] + (weights[i] - initialWeights[i]) * retention;
             }
         }
 
-        throw new IllegalStateException("Failed to select a monster. This should not happen.");
+        // Reduces the probability of monsters with the same attributes, and increases the probability of the others
+        totalWeight = table.applySelection(weights, selectedMonster.id());
+
+        if (journal != null) journal.append(new MonsterSelectionRecord(System.currentTimeMillis(), journalMatchId, selectedMonster));
+        if (MatchEvents.MONSTER_SELECTED.hasListeners()) MatchEvents.MONSTER_SELECTED.publish(new MonsterSelected(this, selectedMonster));
+
+        if (historySize < history.length) {
+            history[(historyStart + historySize++) % history.length] = selectedMonster;
+        } else {
+            history[historyStart] = selectedMonster;
+            historyStart = (historyStart + 1) % history.length;
+        }
+    }
+
+    private void refreshTable() {
+        if (!followsRegistry) return;
+
+        final MonsterTable current = MonsterRegistry.getTable();
+        if (current != table) useTable(current);
+    }
+
+    private void useTable(@NotNull MonsterTable table) {
+        this.table = table;
+        this.retention = 1d - table.getSettings().decayRate();
+
+        weights = table.initialWeights().clone();
+        totalWeight = table.initialTotalWeight();
+    }
+
+    private static @NotNull MonsterTable withHistory(@NotNull MonsterTable table, int historySize, double decayRate) {
+        final MonsterSelectorSettings settings = table.getSettings();
+        return table.withSettings(new MonsterSelectorSettings(settings.reductionPercentage(), settings.minimumProbability(),
+                historySize, decayRate));
+    }
+
+    private Monster selectWeightedMonster() {
+        // The weights change with every selection, so a linear scan over the handful of monsters is cheaper than
+        // building any table to sample from. Scaling the random value by the total weight is the same as normalizing
+        // the weights so they sum to 1.
+        final double randomValue = random.nextDouble() * totalWeight;
+        double cumulativeWeight = 0d;
+
+        for (int i = 0; i < weights.length; i++) {
+            cumulativeWeight += weights[i];
+            if (randomValue < cumulativeWeight) return table.monster(i);
+        }
+
+        // Rounding can leave the cumulative weight just short of the total, in which case the last monster of the
+        // roster is picked
+        return table.getRoster().getLast();
     }
 }
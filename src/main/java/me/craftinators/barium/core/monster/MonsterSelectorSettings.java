@@ -0,0 +1,64 @@
+package me.craftinators.barium.core.monster;
+
+/**
+ * The tuning of a {@link MonsterSelector}.
+ * @param reductionPercentage The fraction by which the weight of a monster is reduced for every attribute it shares
+ *                            with a selected monster, between 0 (exclusive) and 1 (exclusive). The weight taken away is
+ *                            spread over the other monsters.
+ * @param minimumProbability The weight below which a monster is never reduced, at least 0
+ * @param historySize The amount of previously selected monsters to remember, must be positive
+ * @param decayRate The fraction by which the weights decay back towards their initial value per selection, between 0
+ *                  (no decay) and 1 (inclusive)
+ */
+public record MonsterSelectorSettings(double reductionPercentage, double minimumProbability, int historySize,
+                                      double decayRate) {
+    /**
+     * The default reduction percentage, 50%.
+     */
+    public static final double DEFAULT_REDUCTION_PERCENTAGE = 50d / 100d;
+
+    /**
+     * The default minimum probability, 1%.
+     */
+    public static final double DEFAULT_MINIMUM_PROBABILITY = 1d / 100d;
+
+    /**
+     * The amount of previously selected monsters that are remembered by default.
+     */
+    public static final int DEFAULT_HISTORY_SIZE = 64;
+
+    /**
+     * The settings used by {@link MonsterSelector#MonsterSelector(java.util.random.RandomGenerator)}, without decay.
+     */
+    public static final MonsterSelectorSettings DEFAULT = new MonsterSelectorSettings(
+            DEFAULT_REDUCTION_PERCENTAGE, DEFAULT_MINIMUM_PROBABILITY, DEFAULT_HISTORY_SIZE, 0d);
+
+    /**
+     * @throws IllegalArgumentException If a setting is out of range
+     */
+    public MonsterSelectorSettings {
+        if (!(reductionPercentage > 0d && reductionPercentage < 1d)) throw new IllegalArgumentException("Reduction percentage must be between 0 and 1.");
+        if (!(minimumProbability >= 0d)) throw new IllegalArgumentException("Minimum probability cannot be negative.");
+        if (historySize <= 0) throw new IllegalArgumentException("History size must be positive.");
+        if (!(decayRate >= 0d && decayRate <= 1d)) throw new IllegalArgumentException("Decay rate must be between 0 and 1.");
+    }
+
+    /**
+     * Creates a copy of these settings with a different reduction percentage and minimum probability.
+     * @param reductionPercentage The new reduction percentage
+     * @param minimumProbability The new minimum probability
+     * @return The new settings
+     */
+    public MonsterSelectorSettings withReduction(double reductionPercentage, double minimumProbability) {
+        return new MonsterSelectorSettings(reductionPercentage, minimumProbability, historySize, decayRate);
+    }
+
+    /**
+     * Creates a copy of these settings with a different decay rate.
+     * @param decayRate The new decay rate
+     * @return The new settings
+     */
+    public MonsterSelectorSettings withDecayRate(double decayRate) {
+        return new MonsterSelectorSettings(reductionPercentage, minimumProbability, historySize, decayRate);
+    }
+}
@@ -0,0 +1,369 @@
+package me.craftinators.barium.core.monster;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The roster of monsters as used by {@link MonsterSelector}, compiled into dense tables indexed by
+ * {@link Monster#id() monster identifier}. Attributes are plain names, and every table numbers the attributes of its
+ * roster from 0, so that every monster has its attributes as a bitmask with one bit set for each of them, and every
+ * attribute has a precomputed vector with the factor each monster's weight is multiplied by when a monster with that
+ * attribute is selected. Applying a selection is therefore a couple of multiplications per monster, without any set
+ * lookups.
+ * <p>
+ * Which monsters are used, their weights and their attributes come from the config, see
+ * {@link #fromConfig(ConfigurationSection)}, so adding, removing or renaming a monster or an attribute only takes a
+ * reload. A table covers every monster that was {@link Monster#named(String) named} when it was compiled, monsters
+ * that are not in its roster have a weight of 0 and are never selected. A table is immutable, and the one in use is
+ * swapped as a whole through {@link MonsterRegistry}.
+ */
+public final class MonsterTable {
+    /**
+     * The most attributes a roster can have, one per bit of the attribute masks.
+     */
+    public static final int MAX_ATTRIBUTES = Long.SIZE;
+
+    // Used when the config has no roster, and for the attributes of monsters the config lists without any
+    private static final Map<String, List<String>> DEFAULT_ROSTER = ImmutableMap.<String, List<String>>builder()
+            .put("TEMPORARY_MONSTER_1", List.of("MELEE", "HORDE")) // zombie
+            .put("TEMPORARY_MONSTER_2", List.of("RANGED")) // skeleton
+            .put("TEMPORARY_MONSTER_3", List.of("RANGED", "SURGE", "DEBUFF")) // spider
+            .put("TEMPORARY_MONSTER_4", List.of("MELEE", "SUPPORT", "SURGE")) // slime
+            .put("TEMPORARY_MONSTER_5", List.of("MELEE", "HORDE", "DESTROY")) // Silverfish
+            .put("TEMPORARY_MONSTER_6", List.of("RANGED", "DEBUFF")) // Guardian
+            .put("TEMPORARY_MONSTER_7", List.of("SUPPORT", "SURGE")) // Enderman
+            .put("TEMPORARY_MONSTER_8", List.of("DESTROY")) // Creeper
+            .put("TEMPORARY_MONSTER_9", List.of("DESTROY")) // Ravager
+            .build();
+    // The attributes of the default roster take the lowest bits in this order, so that the default roster makes the same
+    // selections for the same seed no matter in which order the config lists it. Penalties are applied bit by bit.
+    private static final List<String> DEFAULT_ATTRIBUTE_ORDER = List.of("DESTROY", "SURGE", "HORDE", "MELEE", "RANGED",
+            "SUPPORT", "DEBUFF");
+
+    /**
+     * The table built into the plugin, every monster of the default roster with its default attributes and an equal
+     * weight.
+     */
+    public static final MonsterTable DEFAULT = compile(MonsterSelectorSettings.DEFAULT, defaultWeights(), defaultAttributes());
+
+    private final MonsterSelectorSettings settings;
+    // Indexed by monster identifier, covering every monster named before the table was compiled
+    private final Monster[] monsters;
+    private final List<Monster> roster;
+    private final double[] initialWeights;
+    private final double initialTotalWeight;
+    // Indexed by attribute bit
+    private final String[] attributes;
+    private final long[] attributeMasks;
+    // Indexed by attribute bit, then by monster identifier
+    private final double[][] attributeFactors;
+    // The weight a monster never drops below, 0 for monsters that are not in the roster
+    private final double[] minimumWeights;
+
+    private MonsterTable(@NotNull MonsterSelectorSettings settings, @NotNull Monster @NotNull [] monsters,
+                         double @NotNull [] initialWeights, @NotNull String @NotNull [] attributes,
+                         long @NotNull [] attributeMasks) {
+        this.settings = settings;
+        this.monsters = monsters;
+        this.initialWeights = initialWeights;
+        this.attributes = attributes;
+        this.attributeMasks = attributeMasks;
+
+        double total = 0d;
+        final ImmutableList.Builder<Monster> roster = ImmutableList.builder();
+        minimumWeights = new double[monsters.length];
+        for (int i = 0; i < monsters.length; i++) {
+            total += initialWeights[i];
+            if (initialWeights[i] > 0d) {
+                roster.add(monsters[i]);
+                minimumWeights[i] = settings.minimumProbability();
+            }
+        }
+        initialTotalWeight = total;
+        this.roster = roster.build();
+
+        // The weight taken away from the monsters sharing an attribute is spread over the other monsters in the roster
+        final int enabled = this.roster.size();
+        final double reductionFactor = 1d - settings.reductionPercentage();
+        final double promotionFactor = enabled > 1 ? 1d + settings.reductionPercentage() / (enabled - 1) : 1d;
+        attributeFactors = new double[attributes.length][monsters.length];
+        for (int attribute = 0; attribute < attributes.length; attribute++) {
+            for (int monster = 0; monster < monsters.length; monster++) {
+                attributeFactors[attribute][monster] = (attributeMasks[monster] & 1L << attribute) != 0L
+                        ? reductionFactor
+                        : promotionFactor;
+            }
+        }
+    }
+
+    /**
+     * Compiles a table.
+     * @param settings The settings of the selectors using the table
+     * @param weights The initial weight of each monster in the roster, monsters that are missing are never selected
+     * @param attributes The attributes of each monster in the roster, monsters that are missing have none
+     * @return The compiled table
+     * @throws IllegalArgumentException If a weight is negative, or below the minimum probability, if the roster is
+     *                                  empty, or if there are more than {@link #MAX_ATTRIBUTES} attributes
+     */
+    public static @NotNull MonsterTable compile(@NotNull MonsterSelectorSettings settings,
+                                                @NotNull Map<@NotNull Monster, @NotNull Double> weights,
+                                                @NotNull Map<@NotNull Monster, ? extends @NotNull Collection<@NotNull String>> attributes) {
+        // Every monster in the maps is named already, so the arrays cover all of them
+        final Monster[] monsters = Monster.snapshot();
+        final double[] initialWeights = new double[monsters.length];
+        for (Map.Entry<Monster, Double> entry : weights.entrySet()) {
+            initialWeights[entry.getKey().id()] = entry.getValue();
+        }
+
+        // Other attributes follow the ones of the default roster in the order they are first seen
+        final List<String> names = new ArrayList<>();
+        for (Collection<String> list : attributes.values()) {
+            for (String attribute : list) {
+                final String name = attribute.toUpperCase(Locale.ROOT);
+                if (!names.contains(name)) names.add(name);
+            }
+        }
+        if (names.size() > MAX_ATTRIBUTES) throw new IllegalArgumentException("A roster cannot have more than " + MAX_ATTRIBUTES + " attributes.");
+        names.sort(Comparator.comparingInt(name -> {
+            final int index = DEFAULT_ATTRIBUTE_ORDER.indexOf(name);
+            return index >= 0 ? index : DEFAULT_ATTRIBUTE_ORDER.size();
+        }));
+
+        final long[] masks = new long[monsters.length];
+        for (Map.Entry<Monster, ? extends Collection<String>> entry : attributes.entrySet()) {
+            for (String attribute : entry.getValue()) {
+                masks[entry.getKey().id()] |= 1L << names.indexOf(attribute.toUpperCase(Locale.ROOT));
+            }
+        }
+        return compile(settings, monsters, initialWeights, names.toArray(String[]::new), masks);
+    }
+
+    private static @NotNull MonsterTable compile(@NotNull MonsterSelectorSettings settings, @NotNull Monster @NotNull [] monsters,
+                                                 double @NotNull [] weights, @NotNull String @NotNull [] attributes,
+                                                 long @NotNull [] masks) {
+        boolean empty = true;
+        for (Monster monster : monsters) {
+            final double weight = weights[monster.id()];
+            if (!(weight >= 0d)) throw new IllegalArgumentException("Weight of " + monster + " cannot be negative.");
+            if (weight == 0d) continue;
+
+            // Keeps every weight at or above the minimum, which the selector relies on
+            if (weight < settings.minimumProbability()) throw new IllegalArgumentException("Weight of " + monster + " cannot be below the minimum probability.");
+            empty = false;
+        }
+        if (empty) throw new IllegalArgumentException("At least one monster must have a weight.");
+
+        return new MonsterTable(settings, monsters, weights, attributes, masks);
+    }
+
+    /**
+     * Compiles a table from a config section of the following form, where every key is optional and monsters that are
+     * not listed are never selected:
+     * <pre>
+     * settings:
+     *   reduction-percentage: 0.5
+     *   minimum-probability: 0.01
+     *   history-size: 64
+     *   decay-rate: 0.0
+     * roster:
+     *   ZOMBIE:
+     *     weight: 0.1111
+     *     attributes: [ MELEE, HORDE ]
+     * </pre>
+     * Monster and attribute names are not case sensitive. Monsters without a weight get 1 divided by the amount of
+     * monsters in the roster, and monsters without attributes get their attributes from the default roster, or none if
+     * they are not in it. Without a roster, the default roster is used.
+     * @param section The config section
+     * @return The compiled table
+     * @throws IllegalArgumentException If the section contains an invalid monster name or value
+     */
+    public static @NotNull MonsterTable fromConfig(@NotNull ConfigurationSection section) {
+        final MonsterSelectorSettings defaults = MonsterSelectorSettings.DEFAULT;
+        final MonsterSelectorSettings settings = new MonsterSelectorSettings(
+                section.getDouble("settings.reduction-percentage", defaults.reductionPercentage()),
+                section.getDouble("settings.minimum-probability", defaults.minimumProbability()),
+                section.getInt("settings.history-size", defaults.historySize()),
+                section.getDouble("settings.decay-rate", defaults.decayRate()));
+
+        final ConfigurationSection roster = section.getConfigurationSection("roster");
+        if (roster == null) return compile(settings, defaultWeights(), defaultAttributes());
+
+        final Set<String> keys = roster.getKeys(false);
+        final Map<Monster, Double> weights = new LinkedHashMap<>();
+        final Map<Monster, List<String>> attributes = new LinkedHashMap<>();
+        for (String key : keys) {
+            final Monster monster = Monster.named(key);
+            weights.put(monster, roster.getDouble(key + ".weight", 1d / keys.size()));
+            attributes.put(monster, roster.contains(key + ".attributes")
+                    ? roster.getStringList(key + ".attributes")
+                    : DEFAULT_ROSTER.getOrDefault(monster.name(), List.of()));
+        }
+        return compile(settings, weights, attributes);
+    }
+
+    // <editor-fold desc="Queries">
+
+    /**
+     * Gets the settings of the selectors using this table.
+     * @return The settings
+     */
+    public @NotNull MonsterSelectorSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Creates a copy of this table with the same roster but different settings.
+     * @param settings The new settings
+     * @return The new table
+     */
+    public @NotNull MonsterTable withSettings(@NotNull MonsterSelectorSettings settings) {
+        return compile(settings, monsters, initialWeights.clone(), attributes, attributeMasks.clone());
+    }
+
+    /**
+     * Gets the monsters that can be selected with this table.
+     * @return An immutable list of the monsters in the roster, by identifier
+     */
+    public @NotNull List<@NotNull Monster> getRoster() {
+        return roster;
+    }
+
+    /**
+     * Gets the attributes the monsters of this table can have.
+     * @return An immutable list of the attributes, by bit in the {@link #getAttributeMask(Monster) attribute masks}
+     */
+    public @NotNull List<@NotNull String> getAttributeNames() {
+        return List.of(attributes);
+    }
+
+    /**
+     * Checks if a monster can be selected with this table.
+     * @param monster The monster
+     * @return {@code true} if the monster has a weight, {@code false} otherwise
+     */
+    public boolean isInRoster(@NotNull Monster monster) {
+        return getInitialWeight(monster) > 0d;
+    }
+
+    /**
+     * Gets the initial weight of a monster.
+     * @param monster The monster
+     * @return The initial weight, 0 if the monster is not in the roster
+     */
+    public double getInitialWeight(@NotNull Monster monster) {
+        return monster.id() < initialWeights.length ? initialWeights[monster.id()] : 0d;
+    }
+
+    /**
+     * Gets the attributes of a monster as a bitmask, with the bit of each attribute in
+     * {@link #getAttributeNames()} set.
+     * @param monster The monster
+     * @return The attribute bitmask
+     */
+    public long getAttributeMask(@NotNull Monster monster) {
+        return monster.id() < attributeMasks.length ? attributeMasks[monster.id()] : 0L;
+    }
+
+    /**
+     * Gets the attributes of a monster.
+     * @param monster The monster
+     * @return An immutable set of the attributes of the monster
+     */
+    public @NotNull Set<@NotNull String> getAttributes(@NotNull Monster monster) {
+        final ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (long mask = getAttributeMask(monster); mask != 0L; mask &= mask - 1L) {
+            builder.add(attributes[Long.numberOfTrailingZeros(mask)]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Checks if a monster has an attribute.
+     * @param monster The monster
+     * @param attribute The name of the attribute, not case sensitive
+     * @return {@code true} if the monster has the attribute, {@code false} otherwise
+     */
+    public boolean hasAttribute(@NotNull Monster monster, @NotNull String attribute) {
+        final int bit = Arrays.asList(attributes).indexOf(attribute.toUpperCase(Locale.ROOT));
+        return bit >= 0 && (getAttributeMask(monster) & 1L << bit) != 0L;
+    }
+
+    /**
+     * Checks if two monsters have at least one attribute in common.
+     * @param first The first monster
+     * @param second The second monster
+     * @return {@code true} if the monsters share an attribute, {@code false} otherwise
+     */
+    public boolean sharesAttribute(@NotNull Monster first, @NotNull Monster second) {
+        return (getAttributeMask(first) & getAttributeMask(second)) != 0L;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold desc="Selector Support">
+
+    /**
+     * Gets the amount of monsters the dense tables cover, which is the length of the weights a selector keeps.
+     */
+    int size() {
+        return monsters.length;
+    }
+
+    @NotNull Monster monster(int id) {
+        return monsters[id];
+    }
+
+    double @NotNull [] initialWeights() {
+        return initialWeights;
+    }
+
+    double initialTotalWeight() {
+        return initialTotalWeight;
+    }
+
+    /**
+     * Applies a selection to the weights, reducing the weights of the monsters that share an attribute with the
+     * selected monster and promoting the others, once per attribute.
+     * @param weights The weights, indexed by monster identifier
+     * @param selected The identifier of the selected monster
+     * @return The new total weight
+     */
+    double applySelection(double @NotNull [] weights, int selected) {
+        long mask = attributeMasks[selected];
+        while (mask != 0L) {
+            final double[] factors = attributeFactors[Long.numberOfTrailingZeros(mask)];
+            mask &= mask - 1L;
+
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = Math.max(weights[i] * factors[i], minimumWeights[i]);
+            }
+        }
+
+        double total = 0d;
+        for (double weight : weights) {
+            total += weight;
+        }
+        return total;
+    }
+
+    // </editor-fold>
+
+    private static @NotNull Map<Monster, Double> defaultWeights() {
+        final Map<Monster, Double> weights = new LinkedHashMap<>();
+        for (String name : DEFAULT_ROSTER.keySet()) {
+            weights.put(Monster.named(name), 1d / DEFAULT_ROSTER.size());
+        }
+        return weights;
+    }
+
+    private static @NotNull Map<Monster, List<String>> defaultAttributes() {
+        final Map<Monster, List<String>> attributes = new LinkedHashMap<>();
+        DEFAULT_ROSTER.forEach((name, list) -> attributes.put(Monster.named(name), list));
+        return attributes;
+    }
+}
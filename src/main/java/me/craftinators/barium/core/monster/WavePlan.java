@@ -0,0 +1,90 @@
+package me.craftinators.barium.core.monster;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The monsters selected for a wave by {@link MonsterSelector#selectMonsters(int)}, stored as the amount of each
+ * {@link Monster} indexed by identifier instead of as a list of individual selections.
+ */
+public final class WavePlan {
+    /**
+     * A wave without any monsters.
+     */
+    public static final WavePlan EMPTY = new WavePlan(new int[0]);
+
+    private final int[] counts;
+    private final int size;
+
+    WavePlan(int @NotNull [] counts) {
+        this.counts = counts;
+
+        int size = 0;
+        for (int count : counts) {
+            size += count;
+        }
+        this.size = size;
+    }
+
+    /**
+     * Gets how many times a monster was selected for this wave.
+     * @param monster The monster to get the amount of
+     * @return The amount of the specified monster in this wave
+     */
+    public int getCount(@NotNull Monster monster) {
+        return monster.id() < counts.length ? counts[monster.id()] : 0;
+    }
+
+    /**
+     * Gets the total amount of monsters in this wave.
+     * @return The amount of monsters in this wave
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if this wave does not contain any monsters.
+     * @return {@code true} if this wave is empty, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Performs the given action for every monster in this wave together with its amount, in identifier order. Monsters
+     * that were not selected are skipped.
+     * @param action The action to perform
+     */
+    public void forEach(@NotNull ObjIntConsumer<@NotNull Monster> action) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) action.accept(Objects.requireNonNull(Monster.byId(i)), counts[i]);
+        }
+    }
+
+    /**
+     * Combines this wave with another wave, for example when a wave is selected in several parts.
+     * @param other The wave to combine with
+     * @return A new wave with the monsters of both waves
+     */
+    public @NotNull WavePlan merge(@NotNull WavePlan other) {
+        // The waves can be of tables that cover a different amount of monsters
+        final int[] merged = Arrays.copyOf(counts, Math.max(counts.length, other.counts.length));
+        for (int i = 0; i < other.counts.length; i++) {
+            merged[i] += other.counts[i];
+        }
+        return new WavePlan(merged);
+    }
+
+    /**
+     * Gets a copy of the amount of each monster in this wave.
+     * @return An array with the amount of each monster, indexed by {@link Monster#id()}, and without entries for
+     *         monsters named after the wave was selected
+     */
+    public int @NotNull [] toCountArray() {
+        return counts.clone();
+    }
+}
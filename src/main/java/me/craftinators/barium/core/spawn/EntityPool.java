@@ -0,0 +1,107 @@
+package me.craftinators.barium.core.spawn;
+
+import me.craftinators.barium.core.monster.Monster;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Keeps the entities of monsters that are no longer needed, such as the survivors of a finished wave, so that the next
+ * wave can reuse them instead of spawning new entities. Must only be used from the main thread.
+ */
+public final class EntityPool {
+    private final MonsterSpawner spawner;
+    private final int capacity;
+    // Indexed by monster identifier, grown when a monster named after the pool was created is released
+    private ArrayDeque<Entity>[] pools;
+
+    /**
+     * Creates a pool.
+     * @param spawner The spawner that prepares the entities for pooling
+     * @param capacity The amount of entities kept per monster, 0 to keep none
+     * @throws IllegalArgumentException If the capacity is negative
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public EntityPool(@NotNull MonsterSpawner spawner, int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity cannot be negative.");
+
+        this.spawner = spawner;
+        this.capacity = capacity;
+        this.pools = new ArrayDeque[Monster.count()];
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Takes an entity of a monster out of the pool. Entities that died or were removed while they were pooled are
+     * discarded.
+     * @param monster The monster
+     * @return A pooled entity of the monster, or {@code null} if there is none
+     */
+    public @Nullable Entity acquire(@NotNull Monster monster) {
+        if (monster.id() >= pools.length) return null;
+
+        final ArrayDeque<Entity> pool = pools[monster.id()];
+        Entity entity;
+        while ((entity = pool.pollLast()) != null) {
+            if (entity.isValid()) return entity;
+        }
+        return null;
+    }
+
+    /**
+     * Hands an entity of a monster to the pool. If the pool of the monster is full, the entity is removed instead.
+     * @param monster The monster the entity was spawned as
+     * @param entity The entity
+     * @return {@code true} if the entity was pooled, {@code false} if it was removed or no longer valid
+     */
+    public boolean release(@NotNull Monster monster, @NotNull Entity entity) {
+        if (!entity.isValid()) return false;
+
+        final ArrayDeque<Entity> pool = pool(monster);
+        if (pool.size() >= capacity) {
+            entity.remove();
+            return false;
+        }
+
+        spawner.park(monster, entity);
+        pool.addLast(entity);
+        return true;
+    }
+
+    /**
+     * Gets the amount of entities pooled for a monster, including any that are no longer valid.
+     * @param monster The monster
+     * @return The amount of pooled entities
+     */
+    public int size(@NotNull Monster monster) {
+        return monster.id() < pools.length ? pools[monster.id()].size() : 0;
+    }
+
+    /**
+     * Removes every pooled entity from the world and empties the pool.
+     */
+    public void clear() {
+        for (ArrayDeque<Entity> pool : pools) {
+            Entity entity;
+            while ((entity = pool.pollLast()) != null) {
+                entity.remove();
+            }
+        }
+    }
+
+    private @NotNull ArrayDeque<Entity> pool(@NotNull Monster monster) {
+        if (monster.id() >= pools.length) {
+            final int oldLength = pools.length;
+            pools = Arrays.copyOf(pools, Math.max(Monster.count(), monster.id() + 1));
+            for (int i = oldLength; i < pools.length; i++) {
+                pools[i] = new ArrayDeque<>();
+            }
+        }
+        return pools[monster.id()];
+    }
+}
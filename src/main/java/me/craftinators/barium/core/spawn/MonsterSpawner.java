@@ -0,0 +1,40 @@
+package me.craftinators.barium.core.spawn;
+
+import me.craftinators.barium.core.monster.Monster;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Turns a {@link Monster} into an entity in the world for a {@link SpawnEngine}. Implementations decide which entity a
+ * monster is, and how an entity is prepared for reuse by an {@link EntityPool}.
+ */
+public interface MonsterSpawner {
+    /**
+     * Spawns a new entity for a monster.
+     * @param monster The monster to spawn
+     * @param location The location to spawn the monster at
+     * @return The spawned entity
+     */
+    @NotNull Entity spawn(@NotNull Monster monster, @NotNull Location location);
+
+    /**
+     * Brings a pooled entity back as a monster, as if it was just spawned. By default, the entity is only teleported.
+     * @param monster The monster the entity was pooled as
+     * @param entity The pooled entity
+     * @param location The location to bring the monster back at
+     * @return {@code true} if the entity can be used, {@code false} if a new entity has to be spawned instead
+     */
+    default boolean reuse(@NotNull Monster monster, @NotNull Entity entity, @NotNull Location location) {
+        return entity.teleport(location);
+    }
+
+    /**
+     * Prepares an entity to wait in a pool until it is reused, for example by moving it out of sight and disabling its
+     * AI. Does nothing by default.
+     * @param monster The monster the entity is pooled as
+     * @param entity The entity to pool
+     */
+    default void park(@NotNull Monster monster, @NotNull Entity entity) {
+    }
+}
@@ -0,0 +1,300 @@
+package me.craftinators.barium.core.spawn;
+
+import com.google.common.collect.ImmutableList;
+import me.craftinators.barium.core.Match;
+import me.craftinators.barium.core.WrappedPlayer;
+import me.craftinators.barium.core.monster.Monster;
+import me.craftinators.barium.core.monster.MonsterSelector;
+import me.craftinators.barium.core.monster.WavePlan;
+import me.craftinators.barium.core.tick.TickClock;
+import me.craftinators.barium.core.tick.TickEngine;
+import me.craftinators.barium.core.tick.Tickable;
+import me.craftinators.barium.event.MatchEvents;
+import me.craftinators.barium.event.WaveSpawned;
+import me.craftinators.barium.load.LoadController;
+import me.craftinators.barium.metrics.Counter;
+import me.craftinators.barium.metrics.Histogram;
+import me.craftinators.barium.metrics.Metrics;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.random.RandomGenerator;
+
+/**
+ * Spawns the waves selected by a {@link MonsterSelector} into the world, spread over as many ticks as needed to stay
+ * within a budget of entities per tick. Waves waiting to be spawned share the budget evenly, and a wave only spawns at
+ * the spawn points in loaded chunks near the players of its match. A wave without such spawn points waits until there
+ * are some. Entities are taken from an {@link EntityPool} before new ones are spawned. The budget shrinks while the
+ * {@link LoadController#getCurrentLevel() load level} is raised.
+ * <p>
+ * The time from a wave being handed to the engine until each entity is spawned is recorded in
+ * {@code spawn.latency.nanos}, until the whole wave is spawned in {@code spawn.wave.latency.nanos}, and the amount of
+ * entities waiting at the start of every tick in {@code spawn.backlog}. Must only be used from the main thread.
+ */
+public final class SpawnEngine implements Tickable {
+    private static final Counter SPAWNED = Metrics.counter("spawn.entities");
+    private static final Counter REUSED = Metrics.counter("spawn.entities.reused");
+    private static final Counter STARVED = Metrics.counter("spawn.starved");
+    private static final Histogram LATENCY_NANOS = Metrics.histogram("spawn.latency.nanos");
+    private static final Histogram WAVE_LATENCY_NANOS = Metrics.histogram("spawn.wave.latency.nanos");
+    private static final Histogram BACKLOG = Metrics.histogram("spawn.backlog");
+
+    private final MonsterSpawner spawner;
+    private final SpawnPointIndex index;
+    private final SpawnSettings settings;
+    private final TickClock clock;
+    private final RandomGenerator random;
+    private final EntityPool pool;
+
+    private final ArrayDeque<PendingWave> waves = new ArrayDeque<>();
+    private int backlog = 0;
+
+    // Reused between waves to avoid allocating on every tick
+    private final List<Location> centres = new ArrayList<>();
+    private final List<SpawnPoint> candidates = new ArrayList<>();
+
+    /**
+     * Creates an engine with the {@link SpawnSettings#DEFAULT default settings}.
+     * @param spawner The spawner that creates the entities
+     * @param index The spawn points to spawn at
+     * @param random The random number generator that picks the spawn points
+     */
+    public SpawnEngine(@NotNull MonsterSpawner spawner, @NotNull SpawnPointIndex index, @NotNull RandomGenerator random) {
+        this(spawner, index, SpawnSettings.DEFAULT, TickClock.SYSTEM, random);
+    }
+
+    /**
+     * Creates an engine.
+     * @param spawner The spawner that creates the entities
+     * @param index The spawn points to spawn at
+     * @param settings The settings of the engine
+     * @param clock The clock the latencies are measured with
+     * @param random The random number generator that picks the spawn points
+     */
+    public SpawnEngine(@NotNull MonsterSpawner spawner, @NotNull SpawnPointIndex index, @NotNull SpawnSettings settings,
+                       @NotNull TickClock clock, @NotNull RandomGenerator random) {
+        this.spawner = spawner;
+        this.index = index;
+        this.settings = settings;
+        this.clock = clock;
+        this.random = random;
+        this.pool = new EntityPool(spawner, settings.poolCapacity());
+    }
+
+    /**
+     * Selects a wave with a selector and queues it to be spawned for a match.
+     * @param match The match to spawn the wave for
+     * @param selector The selector to select the monsters of the wave with
+     * @param count The amount of monsters in the wave
+     * @return A future that completes with the spawned entities once the whole wave is spawned
+     * @see #spawnWave(Match, WavePlan)
+     */
+    public @NotNull CompletableFuture<@NotNull List<@NotNull Entity>> spawnWave(@NotNull Match match,
+                                                                               @NotNull MonsterSelector selector, int count) {
+        return spawnWave(match, selector.selectMonsters(count));
+    }
+
+    /**
+     * Queues a wave to be spawned for a match. Once every monster of the wave is spawned,
+     * {@link MatchEvents#WAVE_SPAWNED} is published and the returned future completes. If the wave is
+     * {@link #cancel(Match) cancelled}, the future is cancelled, and if the spawner fails, the future completes
+     * exceptionally. In both cases the entities spawned so far are left in the world.
+     * @param match The match to spawn the wave for
+     * @param wave The monsters to spawn
+     * @return A future that completes with the spawned entities once the whole wave is spawned
+     */
+    public @NotNull CompletableFuture<@NotNull List<@NotNull Entity>> spawnWave(@NotNull Match match, @NotNull WavePlan wave) {
+        final PendingWave pending = new PendingWave(match, wave, clock.nanoTime());
+        if (wave.isEmpty()) {
+            complete(pending);
+        } else {
+            waves.addLast(pending);
+            backlog += wave.size();
+        }
+        return pending.future;
+    }
+
+    /**
+     * Cancels every wave that is waiting to be spawned for a match.
+     * @param match The match
+     * @return The amount of waves that were cancelled
+     */
+    public int cancel(@NotNull Match match) {
+        int cancelled = 0;
+        final Iterator<PendingWave> iterator = waves.iterator();
+        while (iterator.hasNext()) {
+            final PendingWave wave = iterator.next();
+            if (wave.match != match) continue;
+
+            iterator.remove();
+            backlog -= wave.remaining;
+            wave.future.cancel(false);
+            cancelled++;
+        }
+        return cancelled;
+    }
+
+    /**
+     * Hands the entity of a monster that is no longer needed to the pool of this engine, to be reused by a later wave.
+     * @param monster The monster the entity was spawned as
+     * @param entity The entity
+     * @return {@code true} if the entity was pooled, {@code false} if it was removed instead
+     * @see EntityPool#release(Monster, Entity)
+     */
+    public boolean release(@NotNull Monster monster, @NotNull Entity entity) {
+        return pool.release(monster, entity);
+    }
+
+    @Override
+    public void tick(@NotNull TickEngine engine, long tick) {
+        if (waves.isEmpty()) return;
+        BACKLOG.record(backlog);
+
+        int budget = LoadController.getCurrentLevel().scaleSpawnBudget(settings.entitiesPerTick());
+        final int waveCount = waves.size();
+        // Waves that did not get a turn stay at the front, so they go first on the next tick
+        for (int i = 0; i < waveCount && budget > 0; i++) {
+            final PendingWave wave = waves.pollFirst();
+            final int spawned;
+            try {
+                spawned = spawn(wave, Math.ceilDiv(budget, waveCount - i));
+            } catch (RuntimeException exception) {
+                backlog -= wave.remaining;
+                wave.future.completeExceptionally(exception);
+                continue;
+            }
+
+            budget -= spawned;
+            if (wave.remaining == 0) {
+                complete(wave);
+            } else {
+                waves.addLast(wave);
+            }
+        }
+    }
+
+    /**
+     * Cancels every wave that is waiting to be spawned, and removes the pooled entities from the world.
+     */
+    public void close() {
+        for (PendingWave wave : waves) {
+            wave.future.cancel(false);
+        }
+        waves.clear();
+        backlog = 0;
+        pool.clear();
+    }
+
+    /**
+     * Gets the amount of monsters that are waiting to be spawned, across all waves.
+     * @return The amount of monsters waiting to be spawned
+     */
+    public int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * Gets the amount of waves that are waiting to be spawned.
+     * @return The amount of waves waiting to be spawned
+     */
+    public int getPendingWaveCount() {
+        return waves.size();
+    }
+
+    /**
+     * Gets the pool this engine takes entities from.
+     * @return The pool of this engine
+     */
+    public @NotNull EntityPool getPool() {
+        return pool;
+    }
+
+    private int spawn(@NotNull PendingWave wave, int limit) {
+        centres.clear();
+        candidates.clear();
+        for (WrappedPlayer wrappedPlayer : wave.match.getPlayers()) {
+            final Player player = wrappedPlayer.getPlayerOrNull();
+            if (player != null) centres.add(player.getLocation());
+        }
+
+        if (index.collectNear(centres, settings.chunkRadius(), candidates) == 0) {
+            STARVED.increment();
+            return 0;
+        }
+
+        int spawned = 0;
+        try {
+            while (spawned < limit && wave.remaining > 0) {
+                final Monster monster = wave.next();
+                // Taken from the backlog right away, a monster the spawner fails on is not left in it
+                backlog--;
+                final Location location = candidates.get(random.nextInt(candidates.size())).toLocation();
+
+                final Entity pooled = pool.acquire(monster);
+                Entity entity = null;
+                try {
+                    if (pooled != null && spawner.reuse(monster, pooled, location)) {
+                        REUSED.increment();
+                        entity = pooled;
+                    } else {
+                        entity = spawner.spawn(monster, location);
+                    }
+                } finally {
+                    // A pooled entity that was not reused, also when the spawner failed, would otherwise be lost
+                    if (pooled != null && entity != pooled) pooled.remove();
+                }
+
+                wave.entities.add(entity);
+                LATENCY_NANOS.record(clock.nanoTime() - wave.queuedAt);
+                spawned++;
+            }
+        } finally {
+            SPAWNED.add(spawned);
+        }
+        return spawned;
+    }
+
+    private void complete(@NotNull PendingWave wave) {
+        WAVE_LATENCY_NANOS.record(clock.nanoTime() - wave.queuedAt);
+        if (MatchEvents.WAVE_SPAWNED.hasListeners()) MatchEvents.WAVE_SPAWNED.publish(new WaveSpawned(wave.match, wave.plan));
+        wave.future.complete(ImmutableList.copyOf(wave.entities));
+    }
+
+    private static final class PendingWave {
+        private final Match match;
+        private final WavePlan plan;
+        private final long queuedAt;
+        private final int[] counts;
+        private final List<Entity> entities;
+        private final CompletableFuture<List<Entity>> future = new CompletableFuture<>();
+
+        private int remaining;
+        private int cursor = 0;
+
+        private PendingWave(@NotNull Match match, @NotNull WavePlan plan, long queuedAt) {
+            this.match = match;
+            this.plan = plan;
+            this.queuedAt = queuedAt;
+            this.counts = plan.toCountArray();
+            this.entities = new ArrayList<>(plan.size());
+            this.remaining = plan.size();
+        }
+
+        // Takes the monsters round-robin, so that a partially spawned wave is a mix of its monsters
+        private @NotNull Monster next() {
+            while (counts[cursor] == 0) {
+                cursor = (cursor + 1) % counts.length;
+            }
+
+            final Monster monster = Objects.requireNonNull(Monster.byId(cursor));
+            counts[cursor]--;
+            remaining--;
+            cursor = (cursor + 1) % counts.length;
+            return monster;
+        }
+    }
+}
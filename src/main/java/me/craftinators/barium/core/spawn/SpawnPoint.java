@@ -0,0 +1,51 @@
+package me.craftinators.barium.core.spawn;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A location monsters can be spawned at.
+ * @param world The world of the spawn point
+ * @param x The x coordinate of the spawn point
+ * @param y The y coordinate of the spawn point
+ * @param z The z coordinate of the spawn point
+ */
+public record SpawnPoint(@NotNull World world, double x, double y, double z) {
+    /**
+     * Creates a spawn point at a location.
+     * @param location The location, must have a world
+     * @return The spawn point
+     * @throws IllegalArgumentException If the location has no world
+     */
+    public static @NotNull SpawnPoint of(@NotNull Location location) {
+        final World world = location.getWorld();
+        if (world == null) throw new IllegalArgumentException("Location must have a world.");
+
+        return new SpawnPoint(world, location.getX(), location.getY(), location.getZ());
+    }
+
+    /**
+     * Gets the x coordinate of the chunk this spawn point is in.
+     * @return The chunk x coordinate
+     */
+    public int chunkX() {
+        return (int) Math.floor(x) >> 4;
+    }
+
+    /**
+     * Gets the z coordinate of the chunk this spawn point is in.
+     * @return The chunk z coordinate
+     */
+    public int chunkZ() {
+        return (int) Math.floor(z) >> 4;
+    }
+
+    /**
+     * Creates a new location at this spawn point.
+     * @return The location
+     */
+    public @NotNull Location toLocation() {
+        return new Location(world, x, y, z);
+    }
+}
@@ -0,0 +1,129 @@
+package me.craftinators.barium.core.spawn;
+
+import me.craftinators.barium.LongObjectMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The spawn points of a map, bucketed by world and chunk, so that looking up the spawn points around a player only
+ * touches the chunks near them instead of every spawn point. Must only be used from the main thread.
+ */
+public final class SpawnPointIndex {
+    private final Map<UUID, LongObjectMap<Chunk>> buckets = new HashMap<>();
+    private int size = 0;
+    // Bumped on every collection, a chunk is visited if it was marked with the current value
+    private long visit = 0L;
+
+    /**
+     * Packs chunk coordinates into a single key.
+     * @param chunkX The x coordinate of the chunk
+     * @param chunkZ The z coordinate of the chunk
+     * @return The key of the chunk
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds a spawn point.
+     * @param point The spawn point
+     */
+    public void add(@NotNull SpawnPoint point) {
+        buckets.computeIfAbsent(point.world().getUID(), ignored -> new LongObjectMap<>())
+                .computeIfAbsent(chunkKey(point.chunkX(), point.chunkZ()), ignored -> new Chunk())
+                .points.add(point);
+        size++;
+    }
+
+    /**
+     * Removes a spawn point.
+     * @param point The spawn point
+     * @return {@code true} if the spawn point was removed, {@code false} if it was not in the index
+     */
+    public boolean remove(@NotNull SpawnPoint point) {
+        final LongObjectMap<Chunk> chunks = buckets.get(point.world().getUID());
+        if (chunks == null) return false;
+
+        final long key = chunkKey(point.chunkX(), point.chunkZ());
+        final Chunk chunk = chunks.get(key);
+        if (chunk == null || !chunk.points.remove(point)) return false;
+
+        if (chunk.points.isEmpty()) chunks.remove(key);
+        if (chunks.isEmpty()) buckets.remove(point.world().getUID());
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the spawn points in a chunk.
+     * @param world The world of the chunk
+     * @param chunkX The x coordinate of the chunk
+     * @param chunkZ The z coordinate of the chunk
+     * @return An unmodifiable view of the spawn points in the chunk
+     */
+    public @NotNull List<@NotNull SpawnPoint> getPointsInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        final LongObjectMap<Chunk> chunks = buckets.get(world.getUID());
+        if (chunks == null) return List.of();
+
+        final Chunk chunk = chunks.get(chunkKey(chunkX, chunkZ));
+        return chunk == null ? List.of() : Collections.unmodifiableList(chunk.points);
+    }
+
+    /**
+     * Collects the spawn points in the loaded chunks within a radius of any of the given locations. Every chunk is
+     * visited once, even if it is near several locations, so no spawn point is collected twice. Does not allocate,
+     * other than to grow the list.
+     * @param centres The locations to look around, usually the locations of the players
+     * @param chunkRadius The radius to look in, in chunks
+     * @param into The list to add the spawn points to
+     * @return The amount of spawn points that were added
+     */
+    public int collectNear(@NotNull Collection<? extends @NotNull Location> centres, int chunkRadius,
+                           @NotNull List<? super SpawnPoint> into) {
+        if (size == 0) return 0;
+
+        int collected = 0;
+        final long visit = ++this.visit;
+        for (Location centre : centres) {
+            final World world = centre.getWorld();
+            if (world == null) continue;
+
+            final LongObjectMap<Chunk> chunks = buckets.get(world.getUID());
+            if (chunks == null) continue;
+
+            final int centreX = centre.getBlockX() >> 4;
+            final int centreZ = centre.getBlockZ() >> 4;
+            for (int chunkX = centreX - chunkRadius; chunkX <= centreX + chunkRadius; chunkX++) {
+                for (int chunkZ = centreZ - chunkRadius; chunkZ <= centreZ + chunkRadius; chunkZ++) {
+                    final Chunk chunk = chunks.get(chunkKey(chunkX, chunkZ));
+                    if (chunk == null || chunk.visit == visit) continue;
+
+                    chunk.visit = visit;
+                    // Checked last, looking up whether a chunk is loaded is the most expensive part
+                    if (!world.isChunkLoaded(chunkX, chunkZ)) continue;
+
+                    into.addAll(chunk.points);
+                    collected += chunk.points.size();
+                }
+            }
+        }
+        return collected;
+    }
+
+    /**
+     * Gets the amount of spawn points in the index.
+     * @return The amount of spawn points
+     */
+    public int size() {
+        return size;
+    }
+
+    private static final class Chunk {
+        private final List<SpawnPoint> points = new ArrayList<>();
+        // The collection that last visited this chunk
+        private long visit = 0L;
+    }
+}
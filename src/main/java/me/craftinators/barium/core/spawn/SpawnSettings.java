@@ -0,0 +1,24 @@
+package me.craftinators.barium.core.spawn;
+
+/**
+ * The tuning of a {@link SpawnEngine}.
+ * @param entitiesPerTick The maximum amount of entities spawned per tick across all waves, must be positive
+ * @param chunkRadius The radius around each player in which spawn points are considered, in chunks, cannot be negative
+ * @param poolCapacity The amount of entities kept for reuse per monster, cannot be negative
+ */
+public record SpawnSettings(int entitiesPerTick, int chunkRadius, int poolCapacity) {
+    /**
+     * Settings that spawn up to 8 entities per tick within 3 chunks of the players, and keep up to 32 entities per
+     * monster.
+     */
+    public static final SpawnSettings DEFAULT = new SpawnSettings(8, 3, 32);
+
+    /**
+     * @throws IllegalArgumentException If a setting is out of range
+     */
+    public SpawnSettings {
+        if (entitiesPerTick <= 0) throw new IllegalArgumentException("Entities per tick must be positive.");
+        if (chunkRadius < 0) throw new IllegalArgumentException("Chunk radius cannot be negative.");
+        if (poolCapacity < 0) throw new IllegalArgumentException("Pool capacity cannot be negative.");
+    }
+}
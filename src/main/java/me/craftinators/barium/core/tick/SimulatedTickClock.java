@@ -0,0 +1,38 @@
+package me.craftinators.barium.core.tick;
+
+/**
+ * A {@link TickClock} that only moves when it is told to, so that a {@link TickEngine} can be driven without a server
+ * and without depending on how fast the machine is. Tasks can advance the clock themselves to simulate their cost.
+ */
+public final class SimulatedTickClock implements TickClock {
+    private long nanoTime;
+
+    /**
+     * Creates a clock starting at 0 nanoseconds.
+     */
+    public SimulatedTickClock() {
+        this(0L);
+    }
+
+    /**
+     * Creates a clock starting at the given time.
+     * @param nanoTime The initial time in nanoseconds
+     */
+    public SimulatedTickClock(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanoTime;
+    }
+
+    /**
+     * Moves this clock forward.
+     * @param nanos The amount of nanoseconds to move forward, must not be negative
+     */
+    public void advance(long nanos) {
+        if (nanos < 0L) throw new IllegalArgumentException("Cannot move the clock backwards.");
+        nanoTime += nanos;
+    }
+}
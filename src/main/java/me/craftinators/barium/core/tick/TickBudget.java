@@ -0,0 +1,36 @@
+package me.craftinators.barium.core.tick;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The time a {@link TickTask} may still use in the current tick. Tasks should check {@link #hasTimeRemaining()} between
+ * units of work and return once it is {@code false}.
+ */
+public final class TickBudget {
+    private final TickClock clock;
+    private long deadline;
+
+    TickBudget(@NotNull TickClock clock) {
+        this.clock = clock;
+    }
+
+    void reset(long budgetNanos) {
+        deadline = clock.nanoTime() + budgetNanos;
+    }
+
+    /**
+     * Checks if there is still time left in the current tick.
+     * @return {@code true} if there is time remaining, {@code false} once the budget has been used up
+     */
+    public boolean hasTimeRemaining() {
+        return clock.nanoTime() < deadline;
+    }
+
+    /**
+     * Gets the time left in the current tick.
+     * @return The remaining time in nanoseconds, negative if the budget has been exceeded
+     */
+    public long getRemainingNanos() {
+        return deadline - clock.nanoTime();
+    }
+}
@@ -0,0 +1,19 @@
+package me.craftinators.barium.core.tick;
+
+/**
+ * The source of time used by a {@link TickEngine} to measure how much of its budget has been used. The server uses
+ * {@link #SYSTEM}, while a {@link SimulatedTickClock} lets the engine run headlessly with time under full control.
+ */
+@FunctionalInterface
+public interface TickClock {
+    /**
+     * A clock backed by {@link System#nanoTime()}.
+     */
+    TickClock SYSTEM = System::nanoTime;
+
+    /**
+     * Gets the current time of this clock. Only the difference between two values is meaningful.
+     * @return The current time in nanoseconds
+     */
+    long nanoTime();
+}
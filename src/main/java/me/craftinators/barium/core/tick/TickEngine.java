@@ -0,0 +1,225 @@
+package me.craftinators.barium.core.tick;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drives {@link Tickable}s and runs {@link TickTask}s within a time budget per tick. Tasks that do not finish within the
+ * budget are carried over to the next tick, after the tasks that are still waiting for their turn, so that an expensive
+ * task cannot starve the others.
+ * <p>
+ * On the server the engine is run once per tick by the scheduler, but {@link #tick()} can be called directly together
+ * with a {@link SimulatedTickClock} to run it headlessly. Tasks can be scheduled from any thread, while {@link #tick()}
+ * must only be called from one thread at a time.
+ */
+public final class TickEngine implements Runnable {
+    /**
+     * The default budget per tick, a fifth of the 50 milliseconds a tick should take.
+     */
+    public static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+
+    private final TickClock clock;
+    private final TickBudget budget;
+    private final Logger logger;
+    private volatile long budgetNanos;
+
+    private final List<Tickable> tickables = new CopyOnWriteArrayList<>();
+    private final Queue<ScheduledTask> scheduledTasks = new ConcurrentLinkedQueue<>();
+    // Only touched by the ticking thread
+    private final ArrayDeque<ScheduledTask> pendingTasks = new ArrayDeque<>();
+
+    private long currentTick = 0;
+    private volatile @Nullable TickReport lastReport = null;
+    private volatile @Nullable Consumer<TickReport> overrunHandler = null;
+
+    /**
+     * Creates an engine with the {@link #DEFAULT_BUDGET_NANOS default budget}.
+     * @param clock The clock used to measure the budget
+     * @param logger The logger to report failing tickables to
+     */
+    public TickEngine(@NotNull TickClock clock, @NotNull Logger logger) {
+        this(clock, DEFAULT_BUDGET_NANOS, logger);
+    }
+
+    /**
+     * Creates an engine.
+     * @param clock The clock used to measure the budget
+     * @param budgetNanos The time each tick may use, in nanoseconds, must be positive
+     * @param logger The logger to report failing tickables to
+     */
+    public TickEngine(@NotNull TickClock clock, long budgetNanos, @NotNull Logger logger) {
+        this.clock = clock;
+        this.budget = new TickBudget(clock);
+        this.logger = logger;
+        setBudgetNanos(budgetNanos);
+    }
+
+    // <editor-fold desc="Configuration">
+
+    /**
+     * Gets the time each tick may use.
+     * @return The budget per tick in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Sets the time each tick may use, taking effect from the next tick.
+     * @param budgetNanos The budget per tick in nanoseconds, must be positive
+     */
+    public void setBudgetNanos(long budgetNanos) {
+        if (budgetNanos <= 0L) throw new IllegalArgumentException("Budget must be positive.");
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Sets the handler that is called with the report of every tick that used more time than its budget. The handler
+     * is called on the ticking thread.
+     * @param handler The handler, or {@code null} to remove it
+     */
+    public void setOverrunHandler(@Nullable Consumer<TickReport> handler) {
+        this.overrunHandler = handler;
+    }
+
+    /**
+     * Registers a tickable to be called at the start of every tick, in the order they were registered.
+     * @param tickable The tickable to register
+     */
+    public void register(@NotNull Tickable tickable) {
+        tickables.add(tickable);
+    }
+
+    /**
+     * Unregisters a tickable, starting from the next tick.
+     * @param tickable The tickable to unregister
+     * @return {@code true} if the tickable was registered, {@code false} otherwise
+     */
+    public boolean unregister(@NotNull Tickable tickable) {
+        return tickables.remove(tickable);
+    }
+
+    // </editor-fold>
+
+    /**
+     * Schedules a task to be run from the next tick on. Can be called from any thread, including from within a task.
+     * @param task The task to schedule
+     * @return A future that is completed once the task is finished, or completed exceptionally if it threw an exception.
+     *         Cancelling the future stops the task from being run again.
+     */
+    public @NotNull CompletableFuture<Void> schedule(@NotNull TickTask task) {
+        final ScheduledTask scheduledTask = new ScheduledTask(task);
+        scheduledTasks.add(scheduledTask);
+        return scheduledTask.future;
+    }
+
+    /**
+     * Gets the number of the next tick, which is also the amount of ticks run so far.
+     * @return The number of the next tick
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Gets the report of the most recent tick.
+     * @return The report of the most recent tick, or {@code null} if no tick has been run yet
+     */
+    public @Nullable TickReport getLastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public void run() {
+        tick();
+    }
+
+    /**
+     * Runs a single tick. All tickables are called first, after which pending tasks are run in order until the budget is
+     * used up. At least one task is run every tick, so work always makes progress even when the tickables alone exceed
+     * the budget.
+     * @return The report of this tick
+     */
+    public @NotNull TickReport tick() {
+        final long tick = currentTick++;
+        final long budgetNanos = this.budgetNanos;
+        final long start = clock.nanoTime();
+        budget.reset(budgetNanos);
+
+        for (Tickable tickable : tickables) {
+            try {
+                tickable.tick(this, tick);
+            } catch (RuntimeException exception) {
+                logger.log(Level.SEVERE, "Tickable " + tickable + " failed on tick " + tick + ".", exception);
+            }
+        }
+
+        drainScheduledTasks();
+
+        int tasksRun = 0;
+        int tasksFinished = 0;
+        long longestTaskNanos = 0L;
+
+        // Every task gets at most one turn per tick, tasks scheduled while ticking wait for the next tick
+        int turns = pendingTasks.size();
+        while (turns-- > 0 && (tasksRun == 0 || budget.hasTimeRemaining())) {
+            final ScheduledTask task = pendingTasks.poll();
+            if (task.future.isDone()) continue; // Cancelled
+
+            final long taskStart = clock.nanoTime();
+            boolean finished;
+            try {
+                finished = task.task.run(budget);
+                if (finished) task.future.complete(null);
+            } catch (RuntimeException exception) {
+                task.future.completeExceptionally(exception);
+                finished = true;
+            }
+            longestTaskNanos = Math.max(longestTaskNanos, clock.nanoTime() - taskStart);
+            tasksRun++;
+
+            if (finished) {
+                tasksFinished++;
+            } else {
+                pendingTasks.add(task);
+            }
+        }
+
+        drainScheduledTasks();
+
+        final TickReport report = new TickReport(tick, budgetNanos, clock.nanoTime() - start, longestTaskNanos,
+                tasksRun, tasksFinished, pendingTasks.size());
+        lastReport = report;
+
+        final Consumer<TickReport> handler = overrunHandler;
+        if (handler != null && report.isOverrun()) handler.accept(report);
+        return report;
+    }
+
+    private void drainScheduledTasks() {
+        ScheduledTask task;
+        while ((task = scheduledTasks.poll()) != null) {
+            pendingTasks.add(task);
+        }
+    }
+
+    private static final class ScheduledTask {
+        private final TickTask task;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private ScheduledTask(@NotNull TickTask task) {
+            this.task = task;
+        }
+    }
+}
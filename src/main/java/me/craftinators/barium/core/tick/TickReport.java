@@ -0,0 +1,22 @@
+package me.craftinators.barium.core.tick;
+
+/**
+ * How a single tick of a {@link TickEngine} went.
+ * @param tick The number of the tick
+ * @param budgetNanos The time the tick was allowed to use, in nanoseconds
+ * @param usedNanos The time the tick actually used, in nanoseconds
+ * @param longestTaskNanos The time used by the slowest single run of a task, in nanoseconds
+ * @param tasksRun The amount of tasks that were run
+ * @param tasksFinished The amount of tasks that finished
+ * @param tasksPending The amount of tasks left for later ticks
+ */
+public record TickReport(long tick, long budgetNanos, long usedNanos, long longestTaskNanos,
+                         int tasksRun, int tasksFinished, int tasksPending) {
+    /**
+     * Checks if the tick used more time than its budget.
+     * @return {@code true} if the budget was exceeded, {@code false} otherwise
+     */
+    public boolean isOverrun() {
+        return usedNanos > budgetNanos;
+    }
+}
@@ -0,0 +1,18 @@
+package me.craftinators.barium.core.tick;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A piece of work that can be spread over several ticks. A task keeps track of its own progress, and is run again on a
+ * later tick for as long as it reports that it is not finished.
+ */
+@FunctionalInterface
+public interface TickTask {
+    /**
+     * Runs the task until it is finished or the budget has been used up. The task should always make some progress,
+     * even when the budget is already used up when it is called, so that it is guaranteed to finish eventually.
+     * @param budget The time the task may still use in this tick
+     * @return {@code true} if the task is finished, {@code false} if it should be run again on a later tick
+     */
+    boolean run(@NotNull TickBudget budget);
+}
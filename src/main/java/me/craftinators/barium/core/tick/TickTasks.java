@@ -0,0 +1,176 @@
+package me.craftinators.barium.core.tick;
+
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.JobBalancer;
+import me.craftinators.barium.core.JobTransfer;
+import me.craftinators.barium.core.Match;
+import me.craftinators.barium.core.WrappedPlayer;
+import me.craftinators.barium.core.monster.MonsterSelector;
+import me.craftinators.barium.core.monster.WavePlan;
+import me.craftinators.barium.load.LoadController;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Resumable versions of the expensive phases of a match, to be scheduled on a {@link TickEngine}.
+ */
+public final class TickTasks {
+    private static final Job[] JOBS = Job.values();
+
+    /**
+     * The default amount of monsters selected per step of {@link #selectMonsters(MonsterSelector, int, Consumer)}.
+     */
+    public static final int DEFAULT_WAVE_CHUNK_SIZE = 16;
+
+    /**
+     * The most runs {@link #balanceJobs(Match, Consumer)} is postponed for while the load level defers balancing, after
+     * which it continues regardless.
+     */
+    public static final int MAX_BALANCE_DEFERRALS = 100;
+
+    private TickTasks() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    /**
+     * Creates a task that balances the jobs of a match like {@link Match#balanceJobs()}. Every run reads the amount of
+     * players in each job once, plans the transfers with {@link JobBalancer#computeTargetCounts(int[])}, and moves as
+     * many players as the budget allows. Since the match is read again on every run, players joining or leaving while
+     * the task is running are taken into account. While the {@link LoadController#getCurrentLevel() load level} defers
+     * balancing, the task waits, but for at most {@value #MAX_BALANCE_DEFERRALS} runs.
+     * @param match The match to balance
+     * @param callback Called with the transfers once the jobs are balanced, a player moved several times is reported
+     *                 with a single transfer from their original job to their final job
+     * @return The task
+     */
+    public static @NotNull TickTask balanceJobs(@NotNull Match match,
+                                                @NotNull Consumer<@NotNull Map<@NotNull WrappedPlayer, @NotNull JobTransfer>> callback) {
+        final Map<WrappedPlayer, JobTransfer> transfers = new HashMap<>();
+        final int[] counts = new int[JOBS.length];
+        final int[] deferrals = {0};
+        return budget -> {
+            if (LoadController.getCurrentLevel().defersBalancing() && deferrals[0] < MAX_BALANCE_DEFERRALS) {
+                deferrals[0]++;
+                return false;
+            }
+
+            do {
+                for (int i = 0; i < JOBS.length; i++) {
+                    counts[i] = match.getCountInJob(JOBS[i]);
+                }
+                final int[] targets = JobBalancer.computeTargetCounts(counts);
+                if (Arrays.equals(counts, targets)) {
+                    callback.accept(transfers);
+                    return true;
+                }
+
+                // Follows the plan until it is done or the budget runs out. If a donor ran out of players in the
+                // meantime, the plan is stale and the counts are read again.
+                int receiver = 0;
+                plan:
+                for (int donor = 0; donor < JOBS.length; donor++) {
+                    while (counts[donor] > targets[donor]) {
+                        while (counts[receiver] >= targets[receiver]) receiver++;
+
+                        final Optional<WrappedPlayer> player = match.getRandomPlayerInJob(JOBS[donor]);
+                        if (player.isEmpty()) break plan;
+
+                        record(transfers, player.get(), match.transferPlayer(player.get(), JOBS[receiver]));
+                        counts[donor]--;
+                        counts[receiver]++;
+                        if (!budget.hasTimeRemaining()) return false;
+                    }
+                }
+            } while (budget.hasTimeRemaining());
+            return false;
+        };
+    }
+
+    /**
+     * Creates a task that selects the monsters of a wave in parts of {@value #DEFAULT_WAVE_CHUNK_SIZE}.
+     * @param selector The selector to select the monsters with
+     * @param count The amount of monsters to select
+     * @param callback Called with the whole wave once it has been selected
+     * @return The task
+     * @see #selectMonsters(MonsterSelector, int, int, Consumer)
+     */
+    public static @NotNull TickTask selectMonsters(@NotNull MonsterSelector selector, int count,
+                                                   @NotNull Consumer<@NotNull WavePlan> callback) {
+        return selectMonsters(selector, count, DEFAULT_WAVE_CHUNK_SIZE, callback);
+    }
+
+    /**
+     * Creates a task that selects the monsters of a wave in parts, using {@link MonsterSelector#selectMonsters(int)}
+     * once per part. The wave is the same as if it was selected at once, splitting it only spreads the cost over
+     * ticks.
+     * @param selector The selector to select the monsters with
+     * @param count The amount of monsters to select
+     * @param chunkSize The amount of monsters to select per part, must be positive
+     * @param callback Called with the whole wave once it has been selected
+     * @return The task
+     */
+    public static @NotNull TickTask selectMonsters(@NotNull MonsterSelector selector, int count, int chunkSize,
+                                                   @NotNull Consumer<@NotNull WavePlan> callback) {
+        if (count < 0) throw new IllegalArgumentException("Count cannot be negative.");
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive.");
+
+        return new TickTask() {
+            private WavePlan plan = WavePlan.EMPTY;
+
+            @Override
+            public boolean run(@NotNull TickBudget budget) {
+                do {
+                    final int remaining = count - plan.size();
+                    if (remaining == 0) {
+                        callback.accept(plan);
+                        return true;
+                    }
+                    plan = plan.merge(selector.selectMonsters(Math.min(remaining, chunkSize)));
+                } while (budget.hasTimeRemaining());
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a task that performs an action for every element, for example to send something to every player of a
+     * {@link Match#getPlayers() roster}. The elements are iterated lazily, so the iterable should not change while the
+     * task is running; a roster is an immutable snapshot and is safe to use.
+     * @param elements The elements to perform the action for
+     * @param action The action to perform
+     * @return The task
+     * @param <T> The type of the elements
+     */
+    public static <T> @NotNull TickTask forEach(@NotNull Iterable<? extends T> elements, @NotNull Consumer<? super T> action) {
+        return new TickTask() {
+            private Iterator<? extends T> iterator = null;
+
+            @Override
+            public boolean run(@NotNull TickBudget budget) {
+                if (iterator == null) iterator = elements.iterator();
+                do {
+                    if (!iterator.hasNext()) return true;
+                    action.accept(iterator.next());
+                } while (budget.hasTimeRemaining());
+                return !iterator.hasNext();
+            }
+        };
+    }
+
+    private static void record(@NotNull Map<WrappedPlayer, JobTransfer> transfers, @NotNull WrappedPlayer player,
+                               @NotNull JobTransfer transfer) {
+        final JobTransfer previous = transfers.get(player);
+        final JobTransfer combined = previous == null ? transfer : new JobTransfer(previous.oldJob(), transfer.newJob());
+        if (combined.isRedundant()) {
+            transfers.remove(player);
+        } else {
+            transfers.put(player, combined);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package me.craftinators.barium.core.tick;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Something that is driven by a {@link TickEngine} once per tick. A tickable is called before the tasks of the tick
+ * are run, and should do as little work as possible itself, scheduling anything expensive as a {@link TickTask}.
+ */
+@FunctionalInterface
+public interface Tickable {
+    /**
+     * Called once per tick by the engine this is registered with.
+     * @param engine The engine that is ticking
+     * @param tick The number of the current tick, starting at 0
+     */
+    void tick(@NotNull TickEngine engine, long tick);
+}
@@ -0,0 +1,119 @@
+package me.craftinators.barium.event;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A typed channel for events that happen too often to go through Bukkit's event system. Listeners are kept in an array
+ * that is rebuilt on every (un)subscription, so publishing is a plain loop of direct calls, and
+ * {@link #hasListeners()} lets publishers skip constructing an event nobody listens to:
+ * <pre>
+ * if (channel.hasListeners()) channel.publish(new SomethingHappened(...));
+ * </pre>
+ * A channel can be bridged to a Bukkit event, in which case every published event is also converted to the Bukkit event
+ * and called through the plugin manager, but only while that Bukkit event has registered listeners.
+ * @param <E> The type of the events
+ */
+public final class EventChannel<E> {
+    private static final Logger LOGGER = Logger.getLogger("Barium");
+    private static final Consumer<?>[] NO_LISTENERS = new Consumer<?>[0];
+
+    private final String name;
+    private final HandlerList bukkitHandlers;
+    private final Function<? super E, ? extends Event> bukkitFactory;
+
+    @SuppressWarnings("unchecked")
+    private volatile Consumer<? super E>[] listeners = (Consumer<? super E>[]) NO_LISTENERS;
+
+    private EventChannel(@NotNull String name, HandlerList bukkitHandlers, Function<? super E, ? extends Event> bukkitFactory) {
+        this.name = name;
+        this.bukkitHandlers = bukkitHandlers;
+        this.bukkitFactory = bukkitFactory;
+    }
+
+    /**
+     * Creates a channel that only delivers to its own listeners.
+     * @param name The name of the channel, used when reporting failing listeners
+     * @return The channel
+     * @param <E> The type of the events
+     */
+    public static <E> @NotNull EventChannel<E> create(@NotNull String name) {
+        return new EventChannel<>(name, null, null);
+    }
+
+    /**
+     * Creates a channel that also calls a Bukkit event for every published event while the Bukkit event has listeners.
+     * @param name The name of the channel, used when reporting failing listeners
+     * @param handlers The handler list of the Bukkit event
+     * @param factory Converts a published event to the Bukkit event
+     * @return The channel
+     * @param <E> The type of the events
+     */
+    public static <E> @NotNull EventChannel<E> bridged(@NotNull String name, @NotNull HandlerList handlers,
+                                                       @NotNull Function<? super E, ? extends Event> factory) {
+        return new EventChannel<>(name, handlers, factory);
+    }
+
+    /**
+     * Checks if publishing an event would reach anyone, either a listener of this channel or of the bridged Bukkit event.
+     * @return {@code true} if there are listeners, {@code false} otherwise
+     */
+    public boolean hasListeners() {
+        return listeners.length > 0 || hasBukkitListeners();
+    }
+
+    /**
+     * Adds a listener. Listeners are called in the order they subscribed, on the thread that publishes the event.
+     * @param listener The listener
+     * @return The subscription, to remove the listener again
+     */
+    public synchronized @NotNull Subscription subscribe(@NotNull Consumer<? super E> listener) {
+        final Consumer<? super E>[] current = listeners;
+        final Consumer<? super E>[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+
+        return () -> unsubscribe(listener);
+    }
+
+    /**
+     * Delivers an event to every listener, and to the bridged Bukkit event if it has listeners. A listener that throws
+     * is reported and does not stop the others from being called.
+     * @param event The event
+     */
+    public void publish(@NotNull E event) {
+        for (Consumer<? super E> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException exception) {
+                LOGGER.log(Level.SEVERE, "Listener " + listener + " of " + name + " failed.", exception);
+            }
+        }
+
+        if (hasBukkitListeners()) Bukkit.getPluginManager().callEvent(bukkitFactory.apply(event));
+    }
+
+    private boolean hasBukkitListeners() {
+        return bukkitHandlers != null && bukkitHandlers.getRegisteredListeners().length > 0;
+    }
+
+    private synchronized void unsubscribe(@NotNull Consumer<? super E> listener) {
+        final Consumer<? super E>[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] != listener) continue;
+
+            final Consumer<? super E>[] updated = Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+            listeners = updated;
+            return;
+        }
+    }
+}
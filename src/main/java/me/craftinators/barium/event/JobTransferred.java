@@ -0,0 +1,15 @@
+package me.craftinators.barium.event;
+
+import me.craftinators.barium.core.JobTransfer;
+import me.craftinators.barium.core.Match;
+import me.craftinators.barium.core.WrappedPlayer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Published on {@link MatchEvents#JOB_TRANSFERRED} after a player in a match was moved to another job.
+ * @param match The match
+ * @param player The player that was moved
+ * @param transfer The job the player was moved from and to
+ */
+public record JobTransferred(@NotNull Match match, @NotNull WrappedPlayer player, @NotNull JobTransfer transfer) {
+}
@@ -0,0 +1,18 @@
+package me.craftinators.barium.event;
+
+import me.craftinators.barium.event.server.LoadLevelChangeEvent;
+
+/**
+ * The channels of the events about the load of the server.
+ */
+public final class LoadEvents {
+    /**
+     * Bridged to {@link LoadLevelChangeEvent}.
+     */
+    public static final EventChannel<LoadLevelChanged> LEVEL_CHANGED = EventChannel.bridged("LoadLevelChanged",
+            LoadLevelChangeEvent.getHandlerList(), LoadLevelChangeEvent::new);
+
+    private LoadEvents() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+}
@@ -0,0 +1,16 @@
+package me.craftinators.barium.event;
+
+import me.craftinators.barium.load.LoadController;
+import me.craftinators.barium.load.LoadLevel;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Published on {@link LoadEvents#LEVEL_CHANGED} after a load controller moved to another level.
+ * @param controller The controller
+ * @param oldLevel The level the controller was at
+ * @param newLevel The level the controller is at now
+ * @param averageTickTime The tick time that caused the change, in milliseconds
+ */
+public record LoadLevelChanged(@NotNull LoadController controller, @NotNull LoadLevel oldLevel,
+                               @NotNull LoadLevel newLevel, double averageTickTime) {
+}
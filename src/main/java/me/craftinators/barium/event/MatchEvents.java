@@ -0,0 +1,31 @@
+package me.craftinators.barium.event;
+
+import me.craftinators.barium.event.match.PlayerChangedJobEvent;
+import me.craftinators.barium.event.match.WaveSpawnedEvent;
+
+/**
+ * The channels of the high-frequency match events. The events that belong to a match are bridged to a Bukkit
+ * {@link me.craftinators.barium.event.match.MatchEvent}, so other plugins can listen to them the usual way.
+ */
+public final class MatchEvents {
+    /**
+     * Bridged to {@link PlayerChangedJobEvent}.
+     */
+    public static final EventChannel<JobTransferred> JOB_TRANSFERRED = EventChannel.bridged("JobTransferred",
+            PlayerChangedJobEvent.getHandlerList(), PlayerChangedJobEvent::new);
+
+    /**
+     * Not bridged, a selector does not belong to a match.
+     */
+    public static final EventChannel<MonsterSelected> MONSTER_SELECTED = EventChannel.create("MonsterSelected");
+
+    /**
+     * Bridged to {@link WaveSpawnedEvent}.
+     */
+    public static final EventChannel<WaveSpawned> WAVE_SPAWNED = EventChannel.bridged("WaveSpawned",
+            WaveSpawnedEvent.getHandlerList(), WaveSpawnedEvent::new);
+
+    private MatchEvents() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+}
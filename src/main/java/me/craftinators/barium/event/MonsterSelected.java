@@ -0,0 +1,14 @@
+package me.craftinators.barium.event;
+
+import me.craftinators.barium.core.monster.Monster;
+import me.craftinators.barium.core.monster.MonsterSelector;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Published on {@link MatchEvents#MONSTER_SELECTED} for every monster a selector selects, including every monster of a
+ * wave selected at once.
+ * @param selector The selector
+ * @param monster The selected monster
+ */
+public record MonsterSelected(@NotNull MonsterSelector selector, @NotNull Monster monster) {
+}
@@ -0,0 +1,12 @@
+package me.craftinators.barium.event;
+
+/**
+ * A listener's registration with an {@link EventChannel}.
+ */
+@FunctionalInterface
+public interface Subscription {
+    /**
+     * Removes the listener from its channel. Does nothing if it was already removed.
+     */
+    void unsubscribe();
+}
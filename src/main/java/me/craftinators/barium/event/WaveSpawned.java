@@ -0,0 +1,13 @@
+package me.craftinators.barium.event;
+
+import me.craftinators.barium.core.Match;
+import me.craftinators.barium.core.monster.WavePlan;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Published on {@link MatchEvents#WAVE_SPAWNED} once every monster of a wave has been spawned.
+ * @param match The match the wave was spawned for
+ * @param wave The monsters of the wave
+ */
+public record WaveSpawned(@NotNull Match match, @NotNull WavePlan wave) {
+}
@@ -14,6 +14,11 @@ public abstract class MatchEvent extends Event {
         this.match = match;
     }
 
+    public MatchEvent(@NotNull Match match, boolean isAsync) {
+        super(isAsync);
+        this.match = match;
+    }
+
     /**
      * Returns the match involved in this event
      *
@@ -0,0 +1,63 @@
+package me.craftinators.barium.event.match;
+
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.WrappedPlayer;
+import me.craftinators.barium.event.JobTransferred;
+import org.bukkit.Bukkit;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Called after a player in a match was moved to another job. Only called while it has listeners, and asynchronously
+ * when the player was moved off the main thread.
+ */
+public class PlayerChangedJobEvent extends MatchEvent {
+    private static final HandlerList HANDLER_LIST = new HandlerList();
+
+    private final WrappedPlayer player;
+    private final Job oldJob;
+    private final Job newJob;
+
+    public PlayerChangedJobEvent(@NotNull JobTransferred event) {
+        super(event.match(), !Bukkit.isPrimaryThread());
+        this.player = event.player();
+        this.oldJob = event.transfer().oldJob();
+        this.newJob = event.transfer().newJob();
+    }
+
+    /**
+     * Returns the {@link WrappedPlayer} who was moved.
+     *
+     * @return The player who was moved
+     */
+    public @NotNull WrappedPlayer getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns the job the player was moved from.
+     *
+     * @return The previous job of the player
+     */
+    public @NotNull Job getOldJob() {
+        return oldJob;
+    }
+
+    /**
+     * Returns the job the player was moved to.
+     *
+     * @return The new job of the player
+     */
+    public @NotNull Job getNewJob() {
+        return newJob;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    public static @NotNull HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+}
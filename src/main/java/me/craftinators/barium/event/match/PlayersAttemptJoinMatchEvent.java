@@ -0,0 +1,97 @@
+package me.craftinators.barium.event.match;
+
+import com.google.common.collect.ImmutableList;
+import me.craftinators.barium.core.Match;
+import me.craftinators.barium.core.WrappedPlayer;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Called once when several players attempt to join a match at the same time, through
+ * {@link Match#addPlayers(java.util.Collection)}. Each player can be cancelled individually, cancelled players will not
+ * be added. Note that the {@link Match} instance is not yet modified to contain any of the players when this event is
+ * called.
+ * <p>
+ * A {@link PlayerAttemptJoinMatchEvent} is only fired for each player that was not cancelled here if there are listeners
+ * registered for it, so listeners that only handle single joins keep working.
+ */
+public class PlayersAttemptJoinMatchEvent extends MatchEvent {
+    private static final HandlerList HANDLER_LIST = new HandlerList();
+
+    private final List<WrappedPlayer> players;
+    private final BitSet cancelled;
+
+    public PlayersAttemptJoinMatchEvent(@NotNull Match match, @NotNull List<@NotNull WrappedPlayer> players) {
+        super(match);
+        this.players = ImmutableList.copyOf(players);
+        this.cancelled = new BitSet(players.size());
+    }
+
+    /**
+     * Returns the {@link WrappedPlayer}s who are attempting to join the match, including the cancelled ones.
+     *
+     * @return An immutable list of the players attempting to join the match
+     */
+    public @NotNull List<@NotNull WrappedPlayer> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Checks if the player at the specified index of {@link #getPlayers()} is cancelled.
+     *
+     * @param index The index of the player
+     * @return {@code true} if the player will not be added to the match, {@code false} otherwise
+     */
+    public boolean isCancelled(int index) {
+        return cancelled.get(checkIndex(index));
+    }
+
+    /**
+     * Sets whether the player at the specified index of {@link #getPlayers()} is cancelled.
+     *
+     * @param index The index of the player
+     * @param cancel {@code true} if the player should not be added to the match, {@code false} otherwise
+     */
+    public void setCancelled(int index, boolean cancel) {
+        cancelled.set(checkIndex(index), cancel);
+    }
+
+    /**
+     * Sets whether a player is cancelled.
+     *
+     * @param player The player
+     * @param cancel {@code true} if the player should not be added to the match, {@code false} otherwise
+     * @throws IllegalArgumentException If the player is not attempting to join the match
+     */
+    public void setCancelled(@NotNull WrappedPlayer player, boolean cancel) {
+        int index = players.indexOf(player);
+        if (index < 0) throw new IllegalArgumentException("Player is not attempting to join the match.");
+        cancelled.set(index, cancel);
+    }
+
+    /**
+     * Returns the amount of players that are cancelled.
+     *
+     * @return The amount of cancelled players
+     */
+    public int getCancelledCount() {
+        return cancelled.cardinality();
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    public static @NotNull HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= players.size()) throw new IndexOutOfBoundsException("Index " + index + " is out of bounds.");
+        return index;
+    }
+}
@@ -0,0 +1,39 @@
+package me.craftinators.barium.event.match;
+
+import me.craftinators.barium.core.monster.WavePlan;
+import me.craftinators.barium.event.WaveSpawned;
+import org.bukkit.Bukkit;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Called once every monster of a wave has been spawned for a match. Only called while it has listeners.
+ */
+public class WaveSpawnedEvent extends MatchEvent {
+    private static final HandlerList HANDLER_LIST = new HandlerList();
+
+    private final WavePlan wave;
+
+    public WaveSpawnedEvent(@NotNull WaveSpawned event) {
+        super(event.match(), !Bukkit.isPrimaryThread());
+        this.wave = event.wave();
+    }
+
+    /**
+     * Returns the monsters of the wave.
+     *
+     * @return The monsters of the wave
+     */
+    public @NotNull WavePlan getWave() {
+        return wave;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    public static @NotNull HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+}
@@ -0,0 +1,62 @@
+package me.craftinators.barium.event.server;
+
+import me.craftinators.barium.event.LoadLevelChanged;
+import me.craftinators.barium.load.LoadLevel;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Called after Barium changed how much load it sheds. Only called while it has listeners.
+ */
+public class LoadLevelChangeEvent extends Event {
+    private static final HandlerList HANDLER_LIST = new HandlerList();
+
+    private final LoadLevel oldLevel;
+    private final LoadLevel newLevel;
+    private final double averageTickTime;
+
+    public LoadLevelChangeEvent(@NotNull LoadLevelChanged event) {
+        super(!Bukkit.isPrimaryThread());
+        this.oldLevel = event.oldLevel();
+        this.newLevel = event.newLevel();
+        this.averageTickTime = event.averageTickTime();
+    }
+
+    /**
+     * Returns the level before the change.
+     *
+     * @return The previous level
+     */
+    public @NotNull LoadLevel getOldLevel() {
+        return oldLevel;
+    }
+
+    /**
+     * Returns the level after the change.
+     *
+     * @return The new level
+     */
+    public @NotNull LoadLevel getNewLevel() {
+        return newLevel;
+    }
+
+    /**
+     * Returns the average tick time that caused the change.
+     *
+     * @return The average tick time in milliseconds
+     */
+    public double getAverageTickTime() {
+        return averageTickTime;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    public static @NotNull HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+}
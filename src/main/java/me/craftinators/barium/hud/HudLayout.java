@@ -0,0 +1,46 @@
+package me.craftinators.barium.hud;
+
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.Match;
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Decides what a {@link MatchHud} shows. The sidebar is rendered once per {@link Job} and shared by every player with
+ * that job, while the boss bar is shared by the whole match. Implementations should return equal components for equal
+ * content, since only the parts that changed since the previous render are sent.
+ */
+public interface HudLayout {
+    /**
+     * Gets the title of the sidebar shown to the players with a job.
+     * @param match The match being rendered
+     * @param job The job of the viewers
+     * @return The title of the sidebar
+     */
+    @NotNull Component getSidebarTitle(@NotNull Match match, @NotNull Job job);
+
+    /**
+     * Gets the lines of the sidebar shown to the players with a job, from top to bottom.
+     * @param match The match being rendered
+     * @param job The job of the viewers
+     * @return The lines of the sidebar, at most {@value MatchHud#MAX_SIDEBAR_LINES}
+     */
+    @NotNull List<@NotNull Component> getSidebarLines(@NotNull Match match, @NotNull Job job);
+
+    /**
+     * Gets the name of the boss bar shown to every player in the match, for example information about the current wave.
+     * @param match The match being rendered
+     * @return The name of the boss bar
+     */
+    @NotNull Component getBossBarName(@NotNull Match match);
+
+    /**
+     * Gets the progress of the boss bar shown to every player in the match.
+     * @param match The match being rendered
+     * @return The progress, between {@link BossBar#MIN_PROGRESS} and {@link BossBar#MAX_PROGRESS}
+     */
+    float getBossBarProgress(@NotNull Match match);
+}
@@ -0,0 +1,266 @@
+package me.craftinators.barium.hud;
+
+import io.papermc.paper.scoreboard.numbers.NumberFormat;
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.Match;
+import me.craftinators.barium.core.WrappedPlayer;
+import me.craftinators.barium.core.tick.TickEngine;
+import me.craftinators.barium.core.tick.Tickable;
+import me.craftinators.barium.load.LoadController;
+import net.kyori.adventure.bossbar.BossBar;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Shows a sidebar and a boss bar to the players of a {@link Match}, as decided by a {@link HudLayout}.
+ * <p>
+ * Every {@link Job} has a single scoreboard that is shared by all players with that job, so each line is rendered once
+ * per job rather than once per player. The last rendered state of every line, the title and the boss bar is kept, and
+ * only what changed is updated, which in turn only sends packets for what changed. Renders are coalesced: the HUD is
+ * rendered at most once every few ticks, and only when it was {@link #invalidate() invalidated} or the roster of the
+ * match changed in the meantime. The render interval is stretched while the
+ * {@link LoadController#getCurrentLevel() load level} is raised. Must only be used from the main thread.
+ */
+public final class MatchHud implements Tickable {
+    /**
+     * The maximum amount of lines the sidebar can show.
+     */
+    public static final int MAX_SIDEBAR_LINES = 15;
+
+    /**
+     * The default minimum amount of ticks between two renders.
+     */
+    public static final int DEFAULT_RENDER_INTERVAL = 5;
+
+    // Viewers are checked at least this often even without changes, to pick up players that reconnected
+    private static final int VIEWER_REFRESH_INTERVAL = 20;
+    private static final Job[] JOBS = Job.values();
+
+    private final Match match;
+    private final HudLayout layout;
+    private final ScoreboardManager scoreboardManager;
+    private final int renderInterval;
+
+    private final JobView[] views = new JobView[JOBS.length];
+    private final Map<WrappedPlayer, Viewer> viewers = new HashMap<>();
+
+    private final BossBar bossBar;
+    private Component bossBarName;
+    private float bossBarProgress;
+
+    private boolean invalidated = true;
+    private long renderedRosterVersion = -1L;
+    private long nextRenderTick = 0L;
+    private long nextViewerRefreshTick = 0L;
+    private boolean closed = false;
+
+    /**
+     * Creates a HUD that renders at most every {@value #DEFAULT_RENDER_INTERVAL} ticks.
+     * @param match The match to show the HUD to
+     * @param layout The layout of the HUD
+     * @param scoreboardManager The manager to create the scoreboards of the jobs with
+     */
+    public MatchHud(@NotNull Match match, @NotNull HudLayout layout, @NotNull ScoreboardManager scoreboardManager) {
+        this(match, layout, scoreboardManager, DEFAULT_RENDER_INTERVAL);
+    }
+
+    /**
+     * Creates a HUD.
+     * @param match The match to show the HUD to
+     * @param layout The layout of the HUD
+     * @param scoreboardManager The manager to create the scoreboards of the jobs with
+     * @param renderInterval The minimum amount of ticks between two renders, must be positive
+     */
+    public MatchHud(@NotNull Match match, @NotNull HudLayout layout, @NotNull ScoreboardManager scoreboardManager,
+                    int renderInterval) {
+        if (renderInterval <= 0) throw new IllegalArgumentException("Render interval must be positive.");
+
+        this.match = match;
+        this.layout = layout;
+        this.scoreboardManager = scoreboardManager;
+        this.renderInterval = renderInterval;
+
+        bossBarName = layout.getBossBarName(match);
+        bossBarProgress = layout.getBossBarProgress(match);
+        bossBar = BossBar.bossBar(bossBarName, bossBarProgress, BossBar.Color.RED, BossBar.Overlay.PROGRESS);
+    }
+
+    /**
+     * Marks the content of the HUD as changed, so that it is rendered again on the next tick the rate limit allows.
+     * Calling this several times before that render results in a single render.
+     */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    @Override
+    public void tick(@NotNull TickEngine engine, long tick) {
+        if (closed || tick < nextRenderTick) return;
+
+        final long rosterVersion = match.getRosterVersion();
+        final boolean changed = invalidated || rosterVersion != renderedRosterVersion;
+        if (!changed && tick < nextViewerRefreshTick) return;
+
+        if (changed) {
+            invalidated = false;
+            renderedRosterVersion = rosterVersion;
+            nextRenderTick = tick + (long) renderInterval * LoadController.getCurrentLevel().getHudIntervalMultiplier();
+            render();
+        }
+        nextViewerRefreshTick = tick + VIEWER_REFRESH_INTERVAL;
+        updateViewers();
+    }
+
+    /**
+     * Removes the HUD from every player and unregisters its scoreboards. The HUD does nothing once it is closed.
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        final Scoreboard mainScoreboard = scoreboardManager.getMainScoreboard();
+        for (Viewer viewer : viewers.values()) {
+            hide(viewer, mainScoreboard);
+        }
+        viewers.clear();
+
+        for (JobView view : views) {
+            if (view != null) view.objective.unregister();
+        }
+    }
+
+    private void render() {
+        final Component name = layout.getBossBarName(match);
+        if (!name.equals(bossBarName)) {
+            bossBarName = name;
+            bossBar.name(name);
+        }
+
+        final float progress = layout.getBossBarProgress(match);
+        if (progress != bossBarProgress) {
+            bossBarProgress = progress;
+            bossBar.progress(progress);
+        }
+
+        // Jobs without players keep their last state, and are brought up to date once someone has that job again
+        for (Map.Entry<Job, Integer> entry : match.getCountPerJob().entrySet()) {
+            if (entry.getValue() == 0) continue;
+
+            final Job job = entry.getKey();
+            JobView view = views[job.ordinal()];
+            if (view == null) views[job.ordinal()] = view = new JobView(job);
+            view.render();
+        }
+    }
+
+    private void updateViewers() {
+        final Set<WrappedPlayer> players = match.getPlayers();
+
+        final Scoreboard mainScoreboard = scoreboardManager.getMainScoreboard();
+        final Iterator<Map.Entry<WrappedPlayer, Viewer>> iterator = viewers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<WrappedPlayer, Viewer> entry = iterator.next();
+            if (players.contains(entry.getKey())) continue;
+
+            hide(entry.getValue(), mainScoreboard);
+            iterator.remove();
+        }
+
+        for (WrappedPlayer player : players) {
+            final Player onlinePlayer = player.getPlayerOrNull();
+            if (onlinePlayer == null) continue;
+
+            JobView view = views[player.getJob().ordinal()];
+            if (view == null) {
+                // Joined the job after the last render
+                views[player.getJob().ordinal()] = view = new JobView(player.getJob());
+                view.render();
+            }
+
+            final Viewer viewer = viewers.get(player);
+            if (viewer == null || viewer.player != onlinePlayer) {
+                // New viewer, or a new Player object after reconnecting
+                onlinePlayer.showBossBar(bossBar);
+                onlinePlayer.setScoreboard(view.scoreboard);
+                viewers.put(player, new Viewer(onlinePlayer, view));
+            } else if (viewer.view != view) {
+                onlinePlayer.setScoreboard(view.scoreboard);
+                viewer.view = view;
+            }
+        }
+    }
+
+    private void hide(@NotNull Viewer viewer, @NotNull Scoreboard mainScoreboard) {
+        viewer.player.hideBossBar(bossBar);
+        if (viewer.player.getScoreboard() == viewer.view.scoreboard) viewer.player.setScoreboard(mainScoreboard);
+    }
+
+    private final class JobView {
+        private final Job job;
+        private final Scoreboard scoreboard;
+        private final Objective objective;
+
+        private Component title;
+        private final Component[] lines = new Component[MAX_SIDEBAR_LINES];
+        private int lineCount = 0;
+
+        private JobView(@NotNull Job job) {
+            this.job = job;
+            this.scoreboard = scoreboardManager.getNewScoreboard();
+
+            title = layout.getSidebarTitle(match, job);
+            objective = scoreboard.registerNewObjective("barium_hud", Criteria.DUMMY, title);
+            objective.numberFormat(NumberFormat.blank());
+            objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+        }
+
+        private void render() {
+            final Component newTitle = layout.getSidebarTitle(match, job);
+            if (!newTitle.equals(title)) {
+                title = newTitle;
+                objective.displayName(newTitle);
+            }
+
+            final List<Component> newLines = layout.getSidebarLines(match, job);
+            final int newLineCount = Math.min(newLines.size(), MAX_SIDEBAR_LINES);
+
+            // The sidebar is sorted by score, highest first, so the scores have to be moved when the amount of lines
+            // changes. Otherwise only the lines whose text changed are touched.
+            final boolean resized = newLineCount != lineCount;
+            for (int i = 0; i < newLineCount; i++) {
+                final Component line = newLines.get(i);
+                if (!resized && line.equals(lines[i])) continue;
+
+                final Score score = objective.getScore(entry(i));
+                if (resized) score.setScore(newLineCount - i);
+                if (!line.equals(lines[i])) score.customName(line);
+                lines[i] = line;
+            }
+
+            for (int i = newLineCount; i < lineCount; i++) {
+                scoreboard.resetScores(entry(i));
+                lines[i] = null;
+            }
+            lineCount = newLineCount;
+        }
+
+        private static @NotNull String entry(int line) {
+            // Never shown, every line has a custom name
+            return "line" + line;
+        }
+    }
+
+    private static final class Viewer {
+        private final Player player;
+        private JobView view;
+
+        private Viewer(@NotNull Player player, @NotNull JobView view) {
+            this.player = player;
+            this.view = view;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package me.craftinators.barium.journal;
+
+import me.craftinators.barium.core.Job;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Records that a player was moved from one job to another.
+ * @param session The session of the server that recorded the transfer
+ * @param timestamp The time of the transfer, in milliseconds since the epoch
+ * @param matchId The identifier of the match
+ * @param player The UUID of the player
+ * @param oldJob The job the player was moved from
+ * @param newJob The job the player was moved to
+ */
+public record JobTransferRecord(long session, long timestamp, long matchId, @NotNull UUID player, @NotNull Job oldJob,
+                                @NotNull Job newJob) implements JournalRecord {
+    /**
+     * Creates a record of a transfer in the current {@link Journal#SESSION session}.
+     */
+    public JobTransferRecord(long timestamp, long matchId, @NotNull UUID player, @NotNull Job oldJob, @NotNull Job newJob) {
+        this(Journal.SESSION, timestamp, matchId, player, oldJob, newJob);
+    }
+}
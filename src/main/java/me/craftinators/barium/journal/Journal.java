@@ -0,0 +1,290 @@
+package me.craftinators.barium.journal;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * An append-only binary log of {@link JournalRecord}s, written in the background.
+ * <p>
+ * {@link #append(JournalRecord)} only puts the record on a lock-free queue and never blocks, so it is safe to call from
+ * the main thread. A virtual thread takes the records off the queue in batches, writes them to the current segment and
+ * syncs the segment to disk once enough bytes were written or enough time has passed. Segments are numbered files in
+ * the journal directory, a new one is started when the current one is full and every time the journal is opened, so a
+ * segment cut off by a crash is never appended to. Use {@link JournalReader} to read the segments back.
+ * <p>
+ * If the writer falls behind and the queue reaches its capacity, new records are dropped instead of waiting, and
+ * {@link #append(JournalRecord)} returns {@code false}. Producers that can slow down should check
+ * {@link #isBackedUp()}.
+ */
+public final class Journal implements Closeable {
+    /**
+     * Identifies the current run of the server in the records it writes. It is the time the journal was first used in
+     * milliseconds since the epoch, so that records of different runs can be told apart even though match identifiers
+     * start over every run.
+     */
+    public static final long SESSION = System.currentTimeMillis();
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{10})\\.journal");
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final JournalSettings settings;
+    private final Logger logger;
+
+    private final Queue<JournalRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed = false;
+    private volatile boolean failed = false;
+
+    // Only touched by the writer thread
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private FileChannel segment;
+    private long segmentSequence;
+    private long segmentSize;
+    private long unsyncedBytes = 0L;
+    private long lastSync = System.nanoTime();
+
+    private Journal(@NotNull Path directory, @NotNull JournalSettings settings, @NotNull Logger logger) throws IOException {
+        this.directory = directory;
+        this.settings = settings;
+        this.logger = logger;
+
+        Files.createDirectories(directory);
+        segmentSequence = lastSegmentSequence(directory);
+        openNextSegment();
+
+        writer = Thread.ofVirtual().name("barium-journal").start(this::writeLoop);
+    }
+
+    /**
+     * Opens a journal in a directory, starting a new segment after the existing ones.
+     * @param directory The directory of the segments
+     * @param settings The settings of the journal
+     * @param logger The logger to report write failures to
+     * @return The journal
+     * @throws IOException If the directory or the first segment could not be created
+     */
+    public static @NotNull Journal open(@NotNull Path directory, @NotNull JournalSettings settings, @NotNull Logger logger) throws IOException {
+        return new Journal(directory, settings, logger);
+    }
+
+    // <editor-fold desc="Appending">
+
+    /**
+     * Queues a record to be written. Never blocks, and can be called from any thread.
+     * @param record The record to write
+     * @return {@code true} if the record was queued, {@code false} if it was dropped because the queue is full or the
+     *         journal is closed
+     */
+    public boolean append(@NotNull JournalRecord record) {
+        if (closed || failed) {
+            dropped.increment();
+            return false;
+        }
+
+        if (queued.incrementAndGet() > settings.capacity()) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+
+        queue.add(record);
+        // The journal may have been closed since the check above, after the writer took its last look at the queue. If
+        // the record can still be taken back, the writer has not seen it and never will.
+        if (closed && queue.remove(record)) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        if (queued.get() == settings.batchSize()) LockSupport.unpark(writer);
+        return true;
+    }
+
+    /**
+     * Checks if more than half of the queue is in use, meaning that the writer is falling behind.
+     * @return {@code true} if producers should slow down, {@code false} otherwise
+     */
+    public boolean isBackedUp() {
+        return queued.get() > settings.capacity() / 2;
+    }
+
+    /**
+     * Gets the amount of records waiting to be written.
+     * @return The amount of queued records
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * Gets the amount of records that were dropped.
+     * @return The amount of dropped records
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the amount of records that were written.
+     * @return The amount of written records
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    // </editor-fold>
+
+    /**
+     * Stops accepting records, waits for the writer to write and sync every queued record, and closes the current
+     * segment.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // <editor-fold desc="Writer">
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                final boolean closing = closed;
+                final int batch = writeBatch();
+
+                final long now = System.nanoTime();
+                if (unsyncedBytes >= settings.syncBytes() || (unsyncedBytes > 0L && now - lastSync >= settings.syncIntervalNanos())) {
+                    sync();
+                }
+                if (segmentSize >= settings.segmentBytes()) {
+                    sync();
+                    segment.close();
+                    openNextSegment();
+                }
+
+                if (closing && queue.isEmpty()) break;
+                if (batch == 0) LockSupport.parkNanos(this, settings.syncIntervalNanos());
+            }
+            sync();
+        } catch (IOException exception) {
+            failed = true;
+            logger.log(Level.SEVERE, "Could not write to the journal in " + directory + ", records are dropped from now on.", exception);
+            dropped.add(queued.getAndSet(0));
+            queue.clear();
+        } finally {
+            try {
+                segment.close();
+            } catch (IOException exception) {
+                logger.log(Level.WARNING, "Could not close the journal segment.", exception);
+            }
+        }
+    }
+
+    private int writeBatch() throws IOException {
+        int count = 0;
+        JournalRecord record;
+        while (count < settings.batchSize() && (record = queue.poll()) != null) {
+            queued.decrementAndGet();
+            if (buffer.remaining() < JournalCodec.MAX_FRAME_BYTES) flushBuffer();
+            JournalCodec.writeFrame(record, buffer);
+            count++;
+        }
+
+        flushBuffer();
+        written.add(count);
+        return count;
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        final int bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        buffer.clear();
+
+        segmentSize += bytes;
+        unsyncedBytes += bytes;
+    }
+
+    private void sync() throws IOException {
+        if (unsyncedBytes > 0L) segment.force(false);
+        unsyncedBytes = 0L;
+        lastSync = System.nanoTime();
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentSequence++;
+        segment = FileChannel.open(directory.resolve(segmentName(segmentSequence)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentSize = 0L;
+
+        JournalCodec.writeHeader(buffer);
+        flushBuffer();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold desc="Segments">
+
+    static @NotNull String segmentName(long sequence) {
+        return String.format("segment-%010d.journal", sequence);
+    }
+
+    /**
+     * Lists the segments in a directory, oldest first.
+     * @param directory The directory of the segments
+     * @return The paths of the segments
+     * @throws IOException If the directory could not be listed
+     */
+    static @NotNull List<Path> listSegments(@NotNull Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static long segmentSequence(@NotNull Path segment) {
+        final Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) throw new IllegalArgumentException("Not a journal segment: " + segment);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static long lastSegmentSequence(@NotNull Path directory) throws IOException {
+        final List<Path> segments = listSegments(directory);
+        return segments.isEmpty() ? 0L : segmentSequence(segments.getLast());
+    }
+
+    // </editor-fold>
+}
@@ -0,0 +1,161 @@
+package me.craftinators.barium.journal;
+
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.monster.Monster;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * The binary layout of journal segments. A segment starts with a header of {@link #MAGIC} and {@link #VERSION}, followed
+ * by frames of the form {@code [int length][byte type][payload][int crc]}, where the length and checksum cover the type
+ * and payload. Every payload starts with the session, timestamp and match of the record. A frame that is cut off or
+ * fails its checksum marks the end of the readable part of a segment, which is how a crash in the middle of a write
+ * shows up. Jobs are stored by ordinal and monsters by name, since monster identifiers change between restarts. An
+ * intact frame with an ordinal this build does not know or an invalid monster name is skipped rather than ending the
+ * segment.
+ */
+final class JournalCodec {
+    static final int MAGIC = 0x42614A4C; // "BaJL"
+    static final int VERSION = 3;
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    // Large enough for any frame, including a monster selection with a name of the maximum length
+    static final int MAX_FRAME_BYTES = 128;
+
+    private static final byte JOB_TRANSFER = 1;
+    private static final byte MONSTER_SELECTION = 2;
+    private static final byte MATCH_OUTCOME = 3;
+
+    private static final Job[] JOBS = Job.values();
+
+    private JournalCodec() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    static void writeHeader(@NotNull ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    static boolean readHeader(@NotNull ByteBuffer buffer) {
+        return buffer.remaining() >= HEADER_BYTES && buffer.getInt() == MAGIC && buffer.getInt() == VERSION;
+    }
+
+    /**
+     * Writes a record as a frame. The buffer must have at least {@link #MAX_FRAME_BYTES} remaining.
+     * @param record The record to write
+     * @param buffer The buffer to write to
+     * @return The amount of bytes written
+     */
+    static int writeFrame(@NotNull JournalRecord record, @NotNull ByteBuffer buffer) {
+        final int start = buffer.position();
+        buffer.position(start + Integer.BYTES); // Length, filled in below
+
+        switch (record) {
+            case JobTransferRecord transfer -> {
+                buffer.put(JOB_TRANSFER);
+                buffer.putLong(transfer.session()).putLong(transfer.timestamp()).putLong(transfer.matchId());
+                buffer.putLong(transfer.player().getMostSignificantBits()).putLong(transfer.player().getLeastSignificantBits());
+                buffer.put((byte) transfer.oldJob().ordinal()).put((byte) transfer.newJob().ordinal());
+            }
+            case MonsterSelectionRecord selection -> {
+                buffer.put(MONSTER_SELECTION);
+                buffer.putLong(selection.session()).putLong(selection.timestamp()).putLong(selection.matchId());
+                final String name = selection.monster().name();
+                buffer.put((byte) name.length()).put(name.getBytes(StandardCharsets.US_ASCII));
+            }
+            case MatchOutcomeRecord outcome -> {
+                buffer.put(MATCH_OUTCOME);
+                buffer.putLong(outcome.session()).putLong(outcome.timestamp()).putLong(outcome.matchId());
+                buffer.putInt(outcome.players()).putInt(outcome.waves()).put((byte) (outcome.victory() ? 1 : 0));
+            }
+        }
+
+        final int bodyStart = start + Integer.BYTES;
+        final int length = buffer.position() - bodyStart;
+        buffer.putInt(start, length);
+        buffer.putInt(checksum(buffer, bodyStart, length));
+        return buffer.position() - start;
+    }
+
+    /**
+     * Reads the length of the next frame and checks that the frame is complete and intact.
+     * @param buffer The buffer to read from, positioned at the start of a frame
+     * @return The length of the frame's type and payload, with the buffer positioned at the type, or -1 if the frame is
+     *         cut off or corrupt, in which case the position of the buffer is undefined
+     */
+    static int readFrameLength(@NotNull ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) return -1;
+
+        final int length = buffer.getInt();
+        if (length <= 0 || length > MAX_FRAME_BYTES || buffer.remaining() < length + Integer.BYTES) return -1;
+
+        final int bodyStart = buffer.position();
+        if (buffer.getInt(bodyStart + length) != checksum(buffer, bodyStart, length)) return -1;
+        return length;
+    }
+
+    /**
+     * Reads the type and payload of a frame whose length was read by {@link #readFrameLength(ByteBuffer)}, and moves
+     * the buffer past the frame.
+     * @param buffer The buffer to read from, positioned at the type of the frame
+     * @param length The length of the frame's type and payload
+     * @return The record, or {@code null} if the frame is of an unknown type, refers to a job that does not exist in
+     *         this build, or has an invalid monster name
+     */
+    static @Nullable JournalRecord readFrameBody(@NotNull ByteBuffer buffer, int length) {
+        final int bodyStart = buffer.position();
+        final JournalRecord record = switch (buffer.get()) {
+            case JOB_TRANSFER -> {
+                final long session = buffer.getLong();
+                final long timestamp = buffer.getLong();
+                final long matchId = buffer.getLong();
+                final UUID player = new UUID(buffer.getLong(), buffer.getLong());
+                final Job oldJob = readEnum(buffer, JOBS);
+                final Job newJob = readEnum(buffer, JOBS);
+                yield oldJob == null || newJob == null ? null : new JobTransferRecord(session, timestamp, matchId, player, oldJob, newJob);
+            }
+            case MONSTER_SELECTION -> {
+                final long session = buffer.getLong();
+                final long timestamp = buffer.getLong();
+                final long matchId = buffer.getLong();
+                final Monster monster = readMonster(buffer);
+                yield monster == null ? null : new MonsterSelectionRecord(session, timestamp, matchId, monster);
+            }
+            case MATCH_OUTCOME -> new MatchOutcomeRecord(buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                    buffer.getInt(), buffer.getInt(), buffer.get() != 0);
+            default -> null;
+        };
+
+        buffer.position(bodyStart + length + Integer.BYTES);
+        return record;
+    }
+
+    private static @Nullable Monster readMonster(@NotNull ByteBuffer buffer) {
+        final int length = buffer.get();
+        if (length <= 0 || length > Monster.MAX_NAME_LENGTH) return null;
+
+        final byte[] name = new byte[length];
+        buffer.get(name);
+        try {
+            return Monster.named(new String(name, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    private static <E extends Enum<E>> @Nullable E readEnum(@NotNull ByteBuffer buffer, @NotNull E @NotNull [] values) {
+        final int ordinal = buffer.get();
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;
+    }
+
+    private static int checksum(@NotNull ByteBuffer buffer, int offset, int length) {
+        final CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,83 @@
+package me.craftinators.barium.journal;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the segments written by a {@link Journal}. Reading should not be done on a segment that is still being written.
+ */
+public final class JournalReader {
+    /**
+     * What was read from a segment.
+     * @param segment The path of the segment
+     * @param records The amount of records read
+     * @param skipped The amount of intact frames that were skipped, because they are of an unknown type or refer to a
+     *                job or monster this build does not have
+     * @param complete {@code false} if the segment ended in a cut off or corrupt frame, or has no valid header
+     */
+    public record SegmentSummary(@NotNull Path segment, long records, long skipped, boolean complete) {
+    }
+
+    private JournalReader() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    /**
+     * Reads every segment in a directory, oldest first.
+     * @param directory The directory of the segments
+     * @param consumer Called with every record, in the order they were written
+     * @return A summary per segment
+     * @throws IOException If a segment could not be read
+     */
+    public static @NotNull List<@NotNull SegmentSummary> readAll(@NotNull Path directory,
+                                                                 @NotNull Consumer<? super JournalRecord> consumer) throws IOException {
+        final List<SegmentSummary> summaries = new ArrayList<>();
+        for (Path segment : Journal.listSegments(directory)) {
+            summaries.add(readSegment(segment, consumer));
+        }
+        return summaries;
+    }
+
+    /**
+     * Reads a single segment, up to its first cut off or corrupt frame. Frames that cannot be turned into a record are
+     * skipped.
+     * @param segment The path of the segment
+     * @param consumer Called with every record, in the order they were written
+     * @return A summary of the segment
+     * @throws IOException If the segment could not be read
+     */
+    public static @NotNull SegmentSummary readSegment(@NotNull Path segment,
+                                                      @NotNull Consumer<? super JournalRecord> consumer) throws IOException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        }
+
+        if (!JournalCodec.readHeader(buffer)) return new SegmentSummary(segment, 0L, 0L, false);
+
+        long records = 0L;
+        long skipped = 0L;
+        while (buffer.hasRemaining()) {
+            final int length = JournalCodec.readFrameLength(buffer);
+            if (length < 0) return new SegmentSummary(segment, records, skipped, false);
+
+            final JournalRecord record = JournalCodec.readFrameBody(buffer, length);
+            if (record == null) {
+                skipped++;
+                continue;
+            }
+
+            consumer.accept(record);
+            records++;
+        }
+        return new SegmentSummary(segment, records, skipped, true);
+    }
+}
@@ -0,0 +1,26 @@
+package me.craftinators.barium.journal;
+
+/**
+ * An entry of the {@link Journal}.
+ */
+public sealed interface JournalRecord permits JobTransferRecord, MonsterSelectionRecord, MatchOutcomeRecord {
+    /**
+     * Gets the server session the record was written in. Match identifiers start over every time the server starts,
+     * so a match is only identified by its identifier together with the session.
+     * @return The {@link Journal#SESSION session} of the server that wrote the record
+     */
+    long session();
+
+    /**
+     * Gets when the recorded event happened.
+     * @return The time of the event, in milliseconds since the epoch
+     */
+    long timestamp();
+
+    /**
+     * Gets the match the recorded event happened in.
+     * @return The {@link me.craftinators.barium.core.Match#getId() identifier} of the match within its
+     *         {@link #session() session}
+     */
+    long matchId();
+}
@@ -0,0 +1,31 @@
+package me.craftinators.barium.journal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tuning of a {@link Journal}.
+ * @param capacity The amount of records that can wait to be written before new records are dropped, must be positive
+ * @param batchSize The amount of waiting records that wakes the writer up before its next scheduled flush, must be
+ *                  positive
+ * @param syncBytes The amount of written bytes after which the segment is synced to disk, must be positive
+ * @param syncIntervalNanos The time after which written bytes are synced to disk at the latest, in nanoseconds, must be
+ *                          positive
+ * @param segmentBytes The size after which a new segment is started, must be positive
+ */
+public record JournalSettings(int capacity, int batchSize, long syncBytes, long syncIntervalNanos, long segmentBytes) {
+    /**
+     * Settings that keep up to 65536 records waiting, sync every 256 KiB or second, and start a new segment every
+     * 64 MiB.
+     */
+    public static final JournalSettings DEFAULT = new JournalSettings(65_536, 1_024, 256L * 1024L,
+            TimeUnit.SECONDS.toNanos(1L), 64L * 1024L * 1024L);
+
+    /**
+     * @throws IllegalArgumentException If a setting is not positive
+     */
+    public JournalSettings {
+        if (capacity <= 0 || batchSize <= 0 || syncBytes <= 0L || syncIntervalNanos <= 0L || segmentBytes <= 0L) {
+            throw new IllegalArgumentException("Journal settings must be positive.");
+        }
+    }
+}
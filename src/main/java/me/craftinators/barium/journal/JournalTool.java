@@ -0,0 +1,111 @@
+package me.craftinators.barium.journal;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Offline maintenance of a journal directory, which must not be open by a {@link Journal} at the same time.
+ */
+public final class JournalTool {
+    private JournalTool() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    /**
+     * Merges every segment in a directory into a single segment, leaving out records older than a cutoff and anything
+     * after a cut off or corrupt frame. The merged segment takes the place of the newest segment, so that a journal
+     * opened afterwards keeps numbering its segments from there. The merged segment is in place before the old
+     * segments are deleted, so an interrupted compaction can leave records twice, but never loses any.
+     * @param directory The directory of the segments
+     * @param minimumTimestamp Records with an earlier timestamp are left out, {@link Long#MIN_VALUE} keeps everything
+     * @return The amount of records in the merged segment
+     * @throws IOException If a segment could not be read or written
+     */
+    public static long compact(@NotNull Path directory, long minimumTimestamp) throws IOException {
+        final List<Path> segments = Journal.listSegments(directory);
+        if (segments.isEmpty()) return 0L;
+
+        final Path target = segments.getLast();
+        final Path temporary = target.resolveSibling(target.getFileName() + ".compacting");
+        final long[] kept = { 0L };
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            JournalCodec.writeHeader(buffer);
+
+            for (Path segment : segments) {
+                JournalReader.readSegment(segment, record -> {
+                    if (record.timestamp() < minimumTimestamp) return;
+                    if (buffer.remaining() < JournalCodec.MAX_FRAME_BYTES) write(channel, buffer);
+                    JournalCodec.writeFrame(record, buffer);
+                    kept[0]++;
+                });
+            }
+
+            write(channel, buffer);
+            channel.force(true);
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (Path segment : segments) {
+            if (!segment.equals(target)) Files.delete(segment);
+        }
+        return kept[0];
+    }
+
+    /**
+     * Dumps or compacts a journal directory:
+     * <ul>
+     *     <li>{@code dump <directory>}: prints every record and a summary of every segment</li>
+     *     <li>{@code compact <directory> [minimum timestamp]}: see {@link #compact(Path, long)}</li>
+     * </ul>
+     * @param args The arguments
+     * @throws IOException If the journal could not be read or written
+     */
+    public static void main(@NotNull String @NotNull [] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: dump <directory> | compact <directory> [minimum timestamp]");
+            return;
+        }
+
+        final Path directory = Path.of(args[1]);
+        switch (args[0]) {
+            case "dump" -> {
+                for (JournalReader.SegmentSummary summary : JournalReader.readAll(directory, System.out::println)) {
+                    System.out.println("# " + summary.segment().getFileName() + ": " + summary.records() + " records"
+                            + (summary.skipped() > 0L ? ", " + summary.skipped() + " unreadable records skipped" : "")
+                            + (summary.complete() ? "" : ", ends in a cut off or corrupt frame"));
+                }
+            }
+            case "compact" -> {
+                final long minimumTimestamp = args.length > 2 ? Long.parseLong(args[2]) : Long.MIN_VALUE;
+                System.out.println("Kept " + compact(directory, minimumTimestamp) + " records.");
+            }
+            default -> System.err.println("Unknown command " + args[0] + ".");
+        }
+    }
+
+    private static void write(@NotNull FileChannel channel, @NotNull ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package me.craftinators.barium.journal;
+
+/**
+ * Records how a match ended.
+ * @param session The session of the server that recorded the outcome
+ * @param timestamp The time the match ended, in milliseconds since the epoch
+ * @param matchId The identifier of the match
+ * @param players The amount of players in the match when it ended
+ * @param waves The amount of waves that were played
+ * @param victory {@code true} if the players won, {@code false} otherwise
+ */
+public record MatchOutcomeRecord(long session, long timestamp, long matchId, int players, int waves, boolean victory)
+        implements JournalRecord {
+    /**
+     * Creates a record of an outcome in the current {@link Journal#SESSION session}.
+     */
+    public MatchOutcomeRecord(long timestamp, long matchId, int players, int waves, boolean victory) {
+        this(Journal.SESSION, timestamp, matchId, players, waves, victory);
+    }
+}
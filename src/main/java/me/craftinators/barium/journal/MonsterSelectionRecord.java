@@ -0,0 +1,21 @@
+package me.craftinators.barium.journal;
+
+import me.craftinators.barium.core.monster.Monster;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Records that a monster was selected.
+ * @param session The session of the server that recorded the selection
+ * @param timestamp The time of the selection, in milliseconds since the epoch
+ * @param matchId The identifier of the match the monster was selected for
+ * @param monster The selected monster
+ */
+public record MonsterSelectionRecord(long session, long timestamp, long matchId, @NotNull Monster monster)
+        implements JournalRecord {
+    /**
+     * Creates a record of a selection in the current {@link Journal#SESSION session}.
+     */
+    public MonsterSelectionRecord(long timestamp, long matchId, @NotNull Monster monster) {
+        this(Journal.SESSION, timestamp, matchId, monster);
+    }
+}
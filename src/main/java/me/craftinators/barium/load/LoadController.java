@@ -0,0 +1,124 @@
+package me.craftinators.barium.load;
+
+import me.craftinators.barium.core.tick.TickEngine;
+import me.craftinators.barium.core.tick.Tickable;
+import me.craftinators.barium.event.LoadEvents;
+import me.craftinators.barium.event.LoadLevelChanged;
+import me.craftinators.barium.metrics.Counter;
+import me.craftinators.barium.metrics.Metrics;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Moves between {@link LoadLevel}s based on how long the server's ticks take. The tick time is sampled every few ticks,
+ * a higher level is entered as soon as its threshold is reached, and levels are lowered one at a time with the
+ * hysteresis of the {@link LoadSettings}. Every change is published on {@link LoadEvents#LEVEL_CHANGED}.
+ * <p>
+ * The subsystems of Barium read the level of the {@link #install() installed} controller through
+ * {@link #getCurrentLevel()}, which is {@link LoadLevel#NORMAL} while no controller is installed. Should be
+ * registered with a {@link TickEngine} before the tickables it throttles, so they see a new level on the same tick.
+ */
+public final class LoadController implements Tickable {
+    private static final Counter LEVEL_CHANGES = Metrics.counter("load.level_changes");
+
+    private static volatile LoadController installed = null;
+
+    private final TickTimeSource source;
+    private final LoadSettings settings;
+
+    private volatile LoadLevel level = LoadLevel.NORMAL;
+    private volatile double lastTickTime = 0d;
+    private long ticksAtLevel = 0L;
+
+    /**
+     * Creates a controller with the {@link LoadSettings#DEFAULT default settings}.
+     * @param source Where the tick time is read from
+     */
+    public LoadController(@NotNull TickTimeSource source) {
+        this(source, LoadSettings.DEFAULT);
+    }
+
+    /**
+     * Creates a controller.
+     * @param source Where the tick time is read from
+     * @param settings The settings of the controller
+     */
+    public LoadController(@NotNull TickTimeSource source, @NotNull LoadSettings settings) {
+        this.source = source;
+        this.settings = settings;
+    }
+
+    /**
+     * Gets the level of the installed controller.
+     * @return The current level, or {@link LoadLevel#NORMAL} if no controller is installed
+     */
+    public static @NotNull LoadLevel getCurrentLevel() {
+        final LoadController controller = installed;
+        return controller == null ? LoadLevel.NORMAL : controller.level;
+    }
+
+    /**
+     * Makes this the controller whose level the subsystems of Barium follow, replacing any other.
+     */
+    public void install() {
+        installed = this;
+    }
+
+    /**
+     * Stops the subsystems of Barium from following this controller, if it is installed.
+     */
+    public void uninstall() {
+        if (installed == this) installed = null;
+    }
+
+    @Override
+    public void tick(@NotNull TickEngine engine, long tick) {
+        ticksAtLevel++;
+        if (tick % settings.sampleInterval() != 0L) return;
+
+        final double mspt = source.getAverageTickTime();
+        lastTickTime = mspt;
+
+        final LoadLevel target = settings.getLevel(mspt);
+        if (target.compareTo(level) > 0) {
+            changeLevel(target, mspt);
+        } else if (level != LoadLevel.NORMAL && ticksAtLevel >= settings.minimumTicksAtLevel()
+                && mspt < settings.getThreshold(level) - settings.hysteresisMspt()) {
+            changeLevel(level.lower(), mspt);
+        }
+    }
+
+    /**
+     * Gets the level of this controller.
+     * @return The level of this controller
+     */
+    public @NotNull LoadLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the tick time of the most recent sample.
+     * @return The tick time in milliseconds
+     */
+    public double getLastTickTime() {
+        return lastTickTime;
+    }
+
+    /**
+     * Gets the settings of this controller.
+     * @return The settings of this controller
+     */
+    public @NotNull LoadSettings getSettings() {
+        return settings;
+    }
+
+    private void changeLevel(@NotNull LoadLevel newLevel, double mspt) {
+        final LoadLevel oldLevel = level;
+        level = newLevel;
+        ticksAtLevel = 0L;
+        LEVEL_CHANGES.increment();
+
+        if (LoadEvents.LEVEL_CHANGED.hasListeners()) {
+            LoadEvents.LEVEL_CHANGED.publish(new LoadLevelChanged(this, oldLevel, newLevel, mspt));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package me.craftinators.barium.load;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * How much Barium holds back to relieve a busy server, as decided by a {@link LoadController}. Every level above
+ * {@link #NORMAL} renders cosmetics less often, spawns fewer entities per tick, gives the tick engine less time and
+ * sends queued packets in larger batches, and the highest levels postpone job balancing.
+ */
+public enum LoadLevel {
+    NORMAL(1, 1d, 1d, false, 1),
+    ELEVATED(2, 0.75d, 0.8d, false, 1),
+    HIGH(4, 0.5d, 0.6d, true, 2),
+    CRITICAL(8, 0.25d, 0.4d, true, 4);
+
+    private final int hudIntervalMultiplier;
+    private final double spawnBudgetFactor;
+    private final double tickBudgetFactor;
+    private final boolean defersBalancing;
+    private final int broadcastInterval;
+
+    LoadLevel(int hudIntervalMultiplier, double spawnBudgetFactor, double tickBudgetFactor, boolean defersBalancing,
+              int broadcastInterval) {
+        this.hudIntervalMultiplier = hudIntervalMultiplier;
+        this.spawnBudgetFactor = spawnBudgetFactor;
+        this.tickBudgetFactor = tickBudgetFactor;
+        this.defersBalancing = defersBalancing;
+        this.broadcastInterval = broadcastInterval;
+    }
+
+    /**
+     * Gets the factor the time between two renders of a HUD is multiplied by.
+     * @return The factor, at least 1
+     */
+    public int getHudIntervalMultiplier() {
+        return hudIntervalMultiplier;
+    }
+
+    /**
+     * Reduces the amount of entities that may be spawned per tick.
+     * @param entitiesPerTick The amount at {@link #NORMAL}
+     * @return The amount at this level, at least 1
+     */
+    public int scaleSpawnBudget(int entitiesPerTick) {
+        return Math.max(1, (int) (entitiesPerTick * spawnBudgetFactor));
+    }
+
+    /**
+     * Reduces the time the tick engine may use per tick.
+     * @param budgetNanos The budget at {@link #NORMAL}, in nanoseconds
+     * @return The budget at this level, in nanoseconds, at least 1
+     */
+    public long scaleTickBudget(long budgetNanos) {
+        return Math.max(1L, (long) (budgetNanos * tickBudgetFactor));
+    }
+
+    /**
+     * Checks if job balancing spread over ticks should wait for the load to drop before it continues.
+     * @return {@code true} if balancing should be postponed, {@code false} otherwise
+     */
+    public boolean defersBalancing() {
+        return defersBalancing;
+    }
+
+    /**
+     * Gets the amount of ticks between two flushes of the queued packets.
+     * @return The amount of ticks, at least 1
+     */
+    public int getBroadcastInterval() {
+        return broadcastInterval;
+    }
+
+    /**
+     * Gets the next lower level.
+     * @return The next lower level, or this level if it is {@link #NORMAL}
+     */
+    public @NotNull LoadLevel lower() {
+        return this == NORMAL ? this : values()[ordinal() - 1];
+    }
+}
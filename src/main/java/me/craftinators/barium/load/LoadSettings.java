@@ -0,0 +1,61 @@
+package me.craftinators.barium.load;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The tuning of a {@link LoadController}. A level is entered as soon as the tick time reaches its threshold, and left
+ * for the next lower level once the tick time has dropped below its threshold by the hysteresis and the level was held
+ * for long enough. This keeps a tick time hovering around a threshold from switching levels back and forth.
+ * @param elevatedMspt The tick time at which {@link LoadLevel#ELEVATED} is entered, in milliseconds
+ * @param highMspt The tick time at which {@link LoadLevel#HIGH} is entered, in milliseconds
+ * @param criticalMspt The tick time at which {@link LoadLevel#CRITICAL} is entered, in milliseconds
+ * @param hysteresisMspt How far below the threshold of a level the tick time has to be to leave it, in milliseconds
+ * @param sampleInterval The amount of ticks between two samples of the tick time, must be positive
+ * @param minimumTicksAtLevel The amount of ticks a level is held at least before it is lowered again
+ */
+public record LoadSettings(double elevatedMspt, double highMspt, double criticalMspt, double hysteresisMspt,
+                           int sampleInterval, int minimumTicksAtLevel) {
+    /**
+     * Settings that start shedding load at 35, 45 and 50 milliseconds per tick, sample every second, and hold a level
+     * for at least 10 seconds before lowering it once the tick time is 5 milliseconds below its threshold.
+     */
+    public static final LoadSettings DEFAULT = new LoadSettings(35d, 45d, 50d, 5d, 20, 200);
+
+    /**
+     * @throws IllegalArgumentException If the thresholds are not positive and increasing, or a setting is out of range
+     */
+    public LoadSettings {
+        if (!(elevatedMspt > 0d && elevatedMspt < highMspt && highMspt < criticalMspt)) {
+            throw new IllegalArgumentException("Thresholds must be positive and increasing.");
+        }
+        if (!(hysteresisMspt >= 0d)) throw new IllegalArgumentException("Hysteresis cannot be negative.");
+        if (sampleInterval <= 0) throw new IllegalArgumentException("Sample interval must be positive.");
+        if (minimumTicksAtLevel < 0) throw new IllegalArgumentException("Minimum ticks at a level cannot be negative.");
+    }
+
+    /**
+     * Gets the tick time at which a level is entered.
+     * @param level The level
+     * @return The threshold of the level in milliseconds, 0 for {@link LoadLevel#NORMAL}
+     */
+    public double getThreshold(@NotNull LoadLevel level) {
+        return switch (level) {
+            case NORMAL -> 0d;
+            case ELEVATED -> elevatedMspt;
+            case HIGH -> highMspt;
+            case CRITICAL -> criticalMspt;
+        };
+    }
+
+    /**
+     * Gets the highest level whose threshold a tick time reaches.
+     * @param mspt The tick time in milliseconds
+     * @return The level
+     */
+    public @NotNull LoadLevel getLevel(double mspt) {
+        if (mspt >= criticalMspt) return LoadLevel.CRITICAL;
+        if (mspt >= highMspt) return LoadLevel.HIGH;
+        if (mspt >= elevatedMspt) return LoadLevel.ELEVATED;
+        return LoadLevel.NORMAL;
+    }
+}
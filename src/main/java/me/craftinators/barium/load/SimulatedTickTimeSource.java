@@ -0,0 +1,38 @@
+package me.craftinators.barium.load;
+
+/**
+ * A {@link TickTimeSource} that reports whatever tick time it was last told to, so that a {@link LoadController} can be
+ * driven without a server.
+ */
+public final class SimulatedTickTimeSource implements TickTimeSource {
+    private volatile double averageTickTime;
+
+    /**
+     * Creates a source reporting 0 milliseconds.
+     */
+    public SimulatedTickTimeSource() {
+        this(0d);
+    }
+
+    /**
+     * Creates a source reporting the given tick time.
+     * @param averageTickTime The initial tick time in milliseconds
+     */
+    public SimulatedTickTimeSource(double averageTickTime) {
+        set(averageTickTime);
+    }
+
+    @Override
+    public double getAverageTickTime() {
+        return averageTickTime;
+    }
+
+    /**
+     * Sets the tick time this source reports.
+     * @param averageTickTime The tick time in milliseconds, must not be negative
+     */
+    public void set(double averageTickTime) {
+        if (!(averageTickTime >= 0d)) throw new IllegalArgumentException("Tick time cannot be negative.");
+        this.averageTickTime = averageTickTime;
+    }
+}
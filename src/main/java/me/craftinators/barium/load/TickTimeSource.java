@@ -0,0 +1,26 @@
+package me.craftinators.barium.load;
+
+import org.bukkit.Server;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Where a {@link LoadController} reads how long the server's ticks take. Exists so that the controller can be driven
+ * by a {@link SimulatedTickTimeSource} instead of a running server.
+ */
+@FunctionalInterface
+public interface TickTimeSource {
+    /**
+     * Gets the average time the recent ticks of the server took.
+     * @return The average tick time, in milliseconds
+     */
+    double getAverageTickTime();
+
+    /**
+     * Creates a source that reads the average tick time Paper keeps over the last 100 ticks.
+     * @param server The server
+     * @return The source
+     */
+    static @NotNull TickTimeSource of(@NotNull Server server) {
+        return server::getAverageTickTime;
+    }
+}
@@ -0,0 +1,25 @@
+package me.craftinators.barium.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event: a match balanced the jobs of its players.
+ */
+@Name("me.craftinators.barium.BalanceJobs")
+@Label("Balance Jobs")
+@Category("Barium")
+@Description("A match balanced the jobs of its players.")
+public final class BalanceJobsEvent extends Event {
+    @Label("Match")
+    public long match;
+
+    @Label("Players")
+    public int players;
+
+    @Label("Transfers")
+    public int transfers;
+}
@@ -0,0 +1,36 @@
+package me.craftinators.barium.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, cheap to update from many threads at once.
+ */
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Increases the count by one.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Increases the count.
+     * @param amount The amount to increase the count by
+     */
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Gets the current count.
+     * @return The current count
+     */
+    public long get() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,91 @@
+package me.craftinators.barium.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A distribution of non-negative values, usually durations in nanoseconds. Values are counted in buckets by powers of
+ * two, so recording a value is a couple of uncontended additions, even when many threads record at once, and
+ * percentiles are accurate to within a factor of two.
+ */
+public final class Histogram {
+    // Bucket 0 holds 0, bucket i holds the values in [2^(i - 1), 2^i)
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     * @param value The value to record
+     */
+    public void record(long value) {
+        value = Math.max(value, 0L);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the amount of recorded values.
+     * @return The amount of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     * @return The mean, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        final long count = getCount();
+        return count == 0L ? 0d : (double) sum.sum() / count;
+    }
+
+    /**
+     * Gets the largest recorded value.
+     * @return The largest value, or 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Estimates a percentile of the recorded values, as the upper bound of the bucket it falls into.
+     * @param percentile The percentile, between 0 and 100
+     * @return The estimated percentile, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        if (!(percentile >= 0d && percentile <= 100d)) throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+
+        long total = 0L;
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0L) return 0L;
+
+        final long rank = (long) Math.ceil(percentile / 100d * total);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0L) return Math.min(upperBound(i), getMax());
+        }
+        return getMax();
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 0L : bucket == Long.SIZE ? Long.MAX_VALUE : (1L << bucket) - 1L;
+    }
+}
@@ -0,0 +1,25 @@
+package me.craftinators.barium.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event: players attempted to join a match, spanning the join events that were fired.
+ */
+@Name("me.craftinators.barium.JoinAttempt")
+@Label("Join Attempt")
+@Category("Barium")
+@Description("Players attempted to join a match, spanning the join events that were fired.")
+public final class JoinAttemptEvent extends Event {
+    @Label("Match")
+    public long match;
+
+    @Label("Players")
+    public int players;
+
+    @Label("Cancelled")
+    public int cancelled;
+}
@@ -0,0 +1,92 @@
+package me.craftinators.barium.metrics;
+
+import com.google.common.collect.ImmutableList;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The registry of all {@link Counter}s and {@link Histogram}s. Metrics are created on first use and live for as long as
+ * the server, so hot paths should look them up once and keep them in a static field. Names are dot-separated, with
+ * durations recorded in nanoseconds and ending in {@code .nanos}.
+ * <p>
+ * The same hot paths also emit JDK Flight Recorder events, see {@link BalanceJobsEvent}, {@link JoinAttemptEvent},
+ * {@link MonsterSelectionEvent} and {@link TexturedHeadEvent}.
+ */
+public final class Metrics {
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    /**
+     * Gets the counter with the given name, creating it if it does not exist yet.
+     * @param name The name of the counter
+     * @return The counter
+     */
+    public static @NotNull Counter counter(@NotNull String name) {
+        return COUNTERS.computeIfAbsent(name, ignored -> new Counter());
+    }
+
+    /**
+     * Gets the histogram with the given name, creating it if it does not exist yet.
+     * @param name The name of the histogram
+     * @return The histogram
+     */
+    public static @NotNull Histogram histogram(@NotNull String name) {
+        return HISTOGRAMS.computeIfAbsent(name, ignored -> new Histogram());
+    }
+
+    /**
+     * Creates a human-readable report of every metric, sorted by name. Durations are shown in microseconds.
+     * @return An immutable list of the lines of the report
+     */
+    public static @NotNull List<@NotNull String> report() {
+        final ImmutableList.Builder<String> lines = ImmutableList.builder();
+        for (Map.Entry<String, Counter> entry : COUNTERS.entrySet()) {
+            lines.add(entry.getKey() + ": " + entry.getValue().get());
+        }
+
+        for (Map.Entry<String, Histogram> entry : HISTOGRAMS.entrySet()) {
+            final Histogram histogram = entry.getValue();
+            final boolean nanos = entry.getKey().endsWith(".nanos");
+            final double scale = nanos ? 1_000d : 1d;
+            lines.add(String.format("%s: count=%d mean=%.1f p50=%.1f p99=%.1f max=%.1f%s",
+                    nanos ? entry.getKey().substring(0, entry.getKey().length() - ".nanos".length()) : entry.getKey(),
+                    histogram.getCount(),
+                    histogram.getMean() / scale,
+                    histogram.getPercentile(50d) / scale,
+                    histogram.getPercentile(99d) / scale,
+                    histogram.getMax() / scale,
+                    nanos ? "us" : ""));
+        }
+        return lines.build();
+    }
+
+    /**
+     * Writes the {@link #report()} to a file, replacing it. The report is written to a temporary file first, so that
+     * the file never contains a partial report.
+     * @param file The file to write to
+     * @throws IOException If the file could not be written
+     */
+    public static void writeReport(@NotNull Path file) throws IOException {
+        final Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        final List<String> lines = ImmutableList.<String>builder()
+                .add("# " + Instant.now())
+                .addAll(report())
+                .build();
+
+        Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,19 @@
+package me.craftinators.barium.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event: a monster selector selected one or more monsters.
+ */
+@Name("me.craftinators.barium.MonsterSelection")
+@Label("Monster Selection")
+@Category("Barium")
+@Description("A monster selector selected one or more monsters.")
+public final class MonsterSelectionEvent extends Event {
+    @Label("Count")
+    public int count;
+}
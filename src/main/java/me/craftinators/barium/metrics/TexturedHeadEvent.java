@@ -0,0 +1,19 @@
+package me.craftinators.barium.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event: a textured head was requested.
+ */
+@Name("me.craftinators.barium.TexturedHead")
+@Label("Textured Head")
+@Category("Barium")
+@Description("A textured head was requested.")
+public final class TexturedHeadEvent extends Event {
+    @Label("Cache Hit")
+    public boolean cacheHit;
+}
@@ -0,0 +1,197 @@
+package me.craftinators.barium.packet;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.PacketContainer;
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.Match;
+import me.craftinators.barium.core.WrappedPlayer;
+import me.craftinators.barium.core.tick.TickEngine;
+import me.craftinators.barium.core.tick.Tickable;
+import me.craftinators.barium.load.LoadController;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Sends packets to the players of a {@link Match}. Every packet is built once by the caller and the same
+ * {@link PacketContainer} is sent to every viewer, instead of every viewer getting a packet of their own through the
+ * Bukkit API.
+ * <p>
+ * Packets can either be sent right away, or queued and sent together on the next {@link #flush()}. Queued packets with
+ * the same key for the same audience replace each other, so only the latest state of, for example, a boss bar is sent
+ * when it changes several times in one tick. When an audience has more than one queued packet, they are sent as a
+ * single bundle, which the client also applies all at once. While registered with a {@link TickEngine}, the broadcaster
+ * flushes at the start of every tick, or every few ticks while the {@link LoadController#getCurrentLevel() load level}
+ * asks for larger batches.
+ */
+public final class PacketBroadcaster implements Tickable {
+    // The client rejects bundles with more packets than this
+    private static final int MAX_BUNDLE_SIZE = 4096;
+
+    private final ProtocolManager protocolManager;
+
+    // Guarded by itself. Replaced on every flush so that packets can be queued while the previous ones are being sent.
+    private Map<Audience, Map<Object, PacketContainer>> queuedPackets = new LinkedHashMap<>();
+
+    /**
+     * Creates a broadcaster that sends packets through the given protocol manager.
+     * @param protocolManager The protocol manager to send packets with
+     */
+    public PacketBroadcaster(@NotNull ProtocolManager protocolManager) {
+        this.protocolManager = protocolManager;
+    }
+
+    // <editor-fold desc="Sending">
+
+    /**
+     * Sends a packet to every online player in a match right away.
+     * @param match The match to send the packet to
+     * @param packet The packet to send
+     * @return The amount of players the packet was sent to
+     */
+    public int send(@NotNull Match match, @NotNull PacketContainer packet) {
+        return sendToAll(match.getPlayers(), packet);
+    }
+
+    /**
+     * Sends a packet to every online player with a certain job in a match right away.
+     * @param match The match to send the packet to
+     * @param job The job of the players to send the packet to
+     * @param packet The packet to send
+     * @return The amount of players the packet was sent to
+     */
+    public int send(@NotNull Match match, @NotNull Job job, @NotNull PacketContainer packet) {
+        return sendToAll(match.getPlayersInJob(job), packet);
+    }
+
+    /**
+     * Sends a packet to every online player in a match that matches a filter right away.
+     * @param match The match to send the packet to
+     * @param filter The filter the players have to match
+     * @param packet The packet to send
+     * @return The amount of players the packet was sent to
+     */
+    public int send(@NotNull Match match, @NotNull Predicate<? super WrappedPlayer> filter, @NotNull PacketContainer packet) {
+        int sent = 0;
+        for (WrappedPlayer player : match.getPlayers()) {
+            if (filter.test(player) && sendTo(player, packet)) sent++;
+        }
+        return sent;
+    }
+
+    // </editor-fold>
+
+    // <editor-fold desc="Queueing">
+
+    /**
+     * Queues a packet for every player in a match. The packet is sent on the next flush, to the players that are in the
+     * match by then. Can be called from any thread.
+     * @param match The match to send the packet to
+     * @param key The key of the packet, a packet queued later with an equal key for the same match replaces this one
+     * @param packet The packet to send
+     */
+    public void queue(@NotNull Match match, @NotNull Object key, @NotNull PacketContainer packet) {
+        enqueue(new Audience(match, null), key, packet);
+    }
+
+    /**
+     * Queues a packet for every player with a certain job in a match. The packet is sent on the next flush, to the
+     * players that have the job by then. Can be called from any thread.
+     * @param match The match to send the packet to
+     * @param job The job of the players to send the packet to
+     * @param key The key of the packet, a packet queued later with an equal key for the same match and job replaces
+     *            this one
+     * @param packet The packet to send
+     */
+    public void queue(@NotNull Match match, @NotNull Job job, @NotNull Object key, @NotNull PacketContainer packet) {
+        enqueue(new Audience(match, job), key, packet);
+    }
+
+    /**
+     * Gets the amount of packets waiting for the next flush.
+     * @return The amount of queued packets
+     */
+    public int getQueuedPacketCount() {
+        synchronized (this) {
+            int count = 0;
+            for (Map<Object, PacketContainer> packets : queuedPackets.values()) {
+                count += packets.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Sends all queued packets, in the order their audiences were first queued for.
+     * @return The amount of packets sent, counting a bundle sent to one player as a single packet
+     */
+    public int flush() {
+        final Map<Audience, Map<Object, PacketContainer>> packetsToSend;
+        synchronized (this) {
+            if (queuedPackets.isEmpty()) return 0;
+            packetsToSend = queuedPackets;
+            queuedPackets = new LinkedHashMap<>();
+        }
+
+        int sent = 0;
+        for (Map.Entry<Audience, Map<Object, PacketContainer>> entry : packetsToSend.entrySet()) {
+            final Audience audience = entry.getKey();
+            final Set<WrappedPlayer> players = audience.job == null
+                    ? audience.match.getPlayers()
+                    : audience.match.getPlayersInJob(audience.job);
+            if (players.isEmpty()) continue;
+
+            for (PacketContainer packet : bundle(entry.getValue().values())) {
+                sent += sendToAll(players, packet);
+            }
+        }
+        return sent;
+    }
+
+    @Override
+    public void tick(@NotNull TickEngine engine, long tick) {
+        if (tick % LoadController.getCurrentLevel().getBroadcastInterval() == 0L) flush();
+    }
+
+    // </editor-fold>
+
+    private synchronized void enqueue(@NotNull Audience audience, @NotNull Object key, @NotNull PacketContainer packet) {
+        queuedPackets.computeIfAbsent(audience, ignored -> new LinkedHashMap<>()).put(key, packet);
+    }
+
+    private @NotNull List<PacketContainer> bundle(@NotNull Collection<PacketContainer> packets) {
+        if (packets.size() == 1) return List.of(packets.iterator().next());
+
+        final List<PacketContainer> bundles = new ArrayList<>(packets.size() / MAX_BUNDLE_SIZE + 1);
+        final List<PacketContainer> remaining = new ArrayList<>(packets);
+        for (int start = 0; start < remaining.size(); start += MAX_BUNDLE_SIZE) {
+            final PacketContainer bundle = protocolManager.createPacket(PacketType.Play.Server.BUNDLE);
+            bundle.getPacketBundles().write(0, remaining.subList(start, Math.min(start + MAX_BUNDLE_SIZE, remaining.size())));
+            bundles.add(bundle);
+        }
+        return bundles;
+    }
+
+    private int sendToAll(@NotNull Collection<WrappedPlayer> players, @NotNull PacketContainer packet) {
+        int sent = 0;
+        for (WrappedPlayer player : players) {
+            if (sendTo(player, packet)) sent++;
+        }
+        return sent;
+    }
+
+    private boolean sendTo(@NotNull WrappedPlayer player, @NotNull PacketContainer packet) {
+        final Player onlinePlayer = player.getPlayerOrNull();
+        if (onlinePlayer == null) return false;
+
+        protocolManager.sendServerPacket(onlinePlayer, packet);
+        return true;
+    }
+
+    private record Audience(@NotNull Match match, @Nullable Job job) {
+    }
+}
@@ -0,0 +1,18 @@
+package me.craftinators.barium.simulation;
+
+import me.craftinators.barium.core.monster.MonsterSelectorSettings;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * One parameter set of a {@link Simulator} sweep.
+ * @param settings The settings of the simulated monster selectors
+ * @param players The amount of players in each simulated match, must be positive
+ */
+public record SimulationParameters(@NotNull MonsterSelectorSettings settings, int players) {
+    /**
+     * @throws IllegalArgumentException If the amount of players is not positive
+     */
+    public SimulationParameters {
+        if (players <= 0) throw new IllegalArgumentException("Amount of players must be positive.");
+    }
+}
@@ -0,0 +1,157 @@
+package me.craftinators.barium.simulation;
+
+import com.google.common.collect.ImmutableList;
+import me.craftinators.barium.core.monster.Monster;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The statistics gathered by a {@link Simulator} for one {@link SimulationParameters parameter set}. Every statistic is
+ * a count, so the results of shards can be merged in any order without changing the outcome.
+ */
+public final class SimulationResult {
+    private final SimulationParameters parameters;
+
+    private long runs = 0;
+    private long selections = 0;
+    // Indexed by monster identifier, grown when a monster named after the result was created is selected
+    private long[] monsterCounts = new long[Monster.count()];
+    // Selections that share at least one attribute with the selection right before them
+    private long repeatedSelections = 0;
+    private long consecutiveSelections = 0;
+
+    private long balanceRounds = 0;
+    private long transfers = 0;
+    private int maxTransfers = 0;
+    private long players = 0;
+
+    SimulationResult(@NotNull SimulationParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    void recordRun() {
+        runs++;
+    }
+
+    void recordSelection(@NotNull Monster monster, boolean consecutive, boolean repeated) {
+        selections++;
+        if (monster.id() >= monsterCounts.length) monsterCounts = Arrays.copyOf(monsterCounts, Monster.count());
+        monsterCounts[monster.id()]++;
+        if (consecutive) consecutiveSelections++;
+        if (repeated) repeatedSelections++;
+    }
+
+    void recordBalanceRound(int playerCount, int transferCount) {
+        balanceRounds++;
+        players += playerCount;
+        transfers += transferCount;
+        maxTransfers = Math.max(maxTransfers, transferCount);
+    }
+
+    void merge(@NotNull SimulationResult other) {
+        runs += other.runs;
+        selections += other.selections;
+        if (other.monsterCounts.length > monsterCounts.length) monsterCounts = Arrays.copyOf(monsterCounts, other.monsterCounts.length);
+        for (int i = 0; i < other.monsterCounts.length; i++) {
+            monsterCounts[i] += other.monsterCounts[i];
+        }
+        repeatedSelections += other.repeatedSelections;
+        consecutiveSelections += other.consecutiveSelections;
+
+        balanceRounds += other.balanceRounds;
+        players += other.players;
+        transfers += other.transfers;
+        maxTransfers = Math.max(maxTransfers, other.maxTransfers);
+    }
+
+    /**
+     * Gets the parameter set these results are for.
+     * @return The parameter set
+     */
+    public @NotNull SimulationParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Gets the amount of simulated runs.
+     * @return The amount of runs
+     */
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Gets the amount of simulated monster selections.
+     * @return The amount of selections
+     */
+    public long getSelections() {
+        return selections;
+    }
+
+    /**
+     * Gets how often a monster was selected, relative to all selections.
+     * @param monster The monster
+     * @return The frequency of the monster, between 0 and 1
+     */
+    public double getFrequency(@NotNull Monster monster) {
+        return selections == 0 || monster.id() >= monsterCounts.length ? 0d : (double) monsterCounts[monster.id()] / selections;
+    }
+
+    /**
+     * Gets how often a selected monster shared at least one attribute with the monster selected right before it.
+     * @return The attribute repetition rate, between 0 and 1
+     */
+    public double getAttributeRepetitionRate() {
+        return consecutiveSelections == 0 ? 0d : (double) repeatedSelections / consecutiveSelections;
+    }
+
+    /**
+     * Gets the mean amount of players moved per job balancing round.
+     * @return The mean amount of transfers
+     */
+    public double getMeanTransfers() {
+        return balanceRounds == 0 ? 0d : (double) transfers / balanceRounds;
+    }
+
+    /**
+     * Gets the mean fraction of the players moved per job balancing round.
+     * @return The mean fraction of players moved, between 0 and 1
+     */
+    public double getTransferRate() {
+        return players == 0 ? 0d : (double) transfers / players;
+    }
+
+    /**
+     * Gets the largest amount of players moved in a single job balancing round.
+     * @return The largest amount of transfers
+     */
+    public int getMaxTransfers() {
+        return maxTransfers;
+    }
+
+    /**
+     * Creates a human-readable report of these results.
+     * @return An immutable list of the lines of the report
+     */
+    public @NotNull List<@NotNull String> report() {
+        final ImmutableList.Builder<String> lines = ImmutableList.builder();
+        lines.add(String.format("reduction=%.3f minimum=%.4f decay=%.3f players=%d runs=%d selections=%d",
+                parameters.settings().reductionPercentage(), parameters.settings().minimumProbability(),
+                parameters.settings().decayRate(), parameters.players(), runs, selections));
+        lines.add(String.format("  attribute repetition rate: %.4f", getAttributeRepetitionRate()));
+
+        final StringBuilder frequencies = new StringBuilder("  monster frequency:");
+        for (int i = 0; i < monsterCounts.length; i++) {
+            final Monster monster = Objects.requireNonNull(Monster.byId(i));
+            frequencies.append(String.format(" %s=%.4f", monster.name(), getFrequency(monster)));
+        }
+        lines.add(frequencies.toString());
+
+        lines.add(String.format("  transfers per round: mean=%.3f max=%d rate=%.4f over %d rounds",
+                getMeanTransfers(), maxTransfers, getTransferRate(), balanceRounds));
+        return lines.build();
+    }
+}
@@ -0,0 +1,257 @@
+package me.craftinators.barium.simulation;
+
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.JobBalancer;
+import me.craftinators.barium.core.monster.Monster;
+import me.craftinators.barium.core.monster.MonsterSelector;
+import me.craftinators.barium.core.monster.MonsterSelectorSettings;
+import me.craftinators.barium.core.monster.MonsterTable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays simulated matches without a server to judge {@link MonsterSelectorSettings} and job balancing. Every run selects
+ * the monsters of a number of waves with a fresh {@link MonsterSelector}, and plays a number of job balancing rounds
+ * with players leaving and joining in between.
+ * <p>
+ * Runs are grouped into shards that are spread over a {@link ForkJoinPool}. Each shard has its own
+ * {@link SplittableRandom}, split from the seed in a fixed order before anything runs, so the results only depend on the
+ * seed and never on how the shards were scheduled.
+ */
+public final class Simulator {
+    private static final Job[] JOBS = Job.values();
+    private static final int RUNS_PER_SHARD = 256;
+
+    private final ForkJoinPool pool;
+    private final long seed;
+    private final int runs;
+    private final int waves;
+    private final int waveSize;
+    private final int balanceRounds;
+
+    /**
+     * Creates a simulator.
+     * @param pool The pool to run the shards on
+     * @param seed The seed of the simulation
+     * @param runs The amount of runs per parameter set, must be positive
+     * @param waves The amount of waves per run
+     * @param waveSize The amount of monsters per wave
+     * @param balanceRounds The amount of job balancing rounds per run
+     */
+    public Simulator(@NotNull ForkJoinPool pool, long seed, int runs, int waves, int waveSize, int balanceRounds) {
+        if (runs <= 0) throw new IllegalArgumentException("Amount of runs must be positive.");
+        if (waves < 0 || waveSize < 0 || balanceRounds < 0) throw new IllegalArgumentException("Amounts cannot be negative.");
+
+        this.pool = pool;
+        this.seed = seed;
+        this.runs = runs;
+        this.waves = waves;
+        this.waveSize = waveSize;
+        this.balanceRounds = balanceRounds;
+    }
+
+    /**
+     * Simulates every run for one parameter set.
+     * @param parameters The parameter set
+     * @return The results of the simulation
+     */
+    public @NotNull SimulationResult simulate(@NotNull SimulationParameters parameters) {
+        final int shardCount = (runs + RUNS_PER_SHARD - 1) / RUNS_PER_SHARD;
+        final SplittableRandom root = new SplittableRandom(seed);
+        final SplittableRandom[] shardRandoms = new SplittableRandom[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shardRandoms[i] = root.split();
+        }
+
+        return pool.invoke(new ShardTask(parameters, shardRandoms, 0, shardCount));
+    }
+
+    /**
+     * Simulates every parameter set of a sweep, one after another.
+     * @param sweep The parameter sets
+     * @return The results, in the same order as the parameter sets
+     */
+    public @NotNull List<@NotNull SimulationResult> simulate(@NotNull List<@NotNull SimulationParameters> sweep) {
+        final List<SimulationResult> results = new ArrayList<>(sweep.size());
+        for (SimulationParameters parameters : sweep) {
+            results.add(simulate(parameters));
+        }
+        return results;
+    }
+
+    private @NotNull SimulationResult simulateShard(@NotNull SimulationParameters parameters, @NotNull SplittableRandom random,
+                                                    int shardIndex) {
+        final SimulationResult result = new SimulationResult(parameters);
+        final int shardRuns = Math.min(RUNS_PER_SHARD, runs - shardIndex * RUNS_PER_SHARD);
+        for (int run = 0; run < shardRuns; run++) {
+            simulateWaves(parameters, random, result);
+            simulateBalancing(parameters, random, result);
+            result.recordRun();
+        }
+        return result;
+    }
+
+    private void simulateWaves(@NotNull SimulationParameters parameters, @NotNull SplittableRandom random,
+                               @NotNull SimulationResult result) {
+        final MonsterSelector selector = new MonsterSelector(random, parameters.settings());
+
+        final MonsterTable table = selector.getTable();
+
+        Monster previous = null;
+        for (int i = waves * waveSize; i > 0; i--) {
+            final Monster monster = selector.selectMonster();
+            result.recordSelection(monster, previous != null, previous != null && table.sharesAttribute(previous, monster));
+            previous = monster;
+        }
+    }
+
+    private void simulateBalancing(@NotNull SimulationParameters parameters, @NotNull SplittableRandom random,
+                                   @NotNull SimulationResult result) {
+        final int players = parameters.players();
+        int[] counts = new int[JOBS.length];
+        for (int i = 0; i < players; i++) {
+            counts[random.nextInt(counts.length)]++;
+        }
+
+        for (int round = 0; round < balanceRounds; round++) {
+            result.recordBalanceRound(players, JobBalancer.countTransfers(counts));
+            counts = JobBalancer.computeTargetCounts(counts);
+
+            // Up to a quarter of the players leave, and as many new players join with a random job
+            final int churn = random.nextInt(players / 4 + 1);
+            for (int i = 0; i < churn; i++) {
+                int leaving = random.nextInt(players);
+                int job = 0;
+                while (leaving >= counts[job]) leaving -= counts[job++];
+                counts[job]--;
+                counts[random.nextInt(counts.length)]++;
+            }
+        }
+    }
+
+    private final class ShardTask extends RecursiveTask<SimulationResult> {
+        private final SimulationParameters parameters;
+        private final SplittableRandom[] shardRandoms;
+        private final int from;
+        private final int to;
+
+        private ShardTask(@NotNull SimulationParameters parameters, @NotNull SplittableRandom @NotNull [] shardRandoms,
+                          int from, int to) {
+            this.parameters = parameters;
+            this.shardRandoms = shardRandoms;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            if (to - from == 1) return simulateShard(parameters, shardRandoms[from], from);
+
+            final int middle = (from + to) >>> 1;
+            final ShardTask left = new ShardTask(parameters, shardRandoms, from, middle);
+            left.fork();
+            final SimulationResult result = new ShardTask(parameters, shardRandoms, middle, to).compute();
+            result.merge(left.join());
+            return result;
+        }
+    }
+
+    // <editor-fold desc="Command Line">
+
+    /**
+     * Runs a parameter sweep and prints the results. Options are given as {@code --name=value}, lists are comma
+     * separated, and every combination of the listed values is simulated:
+     * <ul>
+     *     <li>{@code --seed}: the seed of the simulation, 0 by default</li>
+     *     <li>{@code --runs}: the amount of runs per parameter set, 10000 by default</li>
+     *     <li>{@code --waves} and {@code --wave-size}: the waves per run and monsters per wave, 10 and 20 by default</li>
+     *     <li>{@code --rounds}: the job balancing rounds per run, 10 by default</li>
+     *     <li>{@code --reductions}, {@code --minimums} and {@code --decays}: the selector settings to sweep</li>
+     *     <li>{@code --players}: the amounts of players per match to sweep, 16 by default</li>
+     * </ul>
+     * @param args The options
+     * @throws IllegalArgumentException If an option is malformed or unknown
+     */
+    public static void main(@NotNull String @NotNull [] args) {
+        final Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) throw new IllegalArgumentException("Expected --name=value, got " + arg + ".");
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        final MonsterSelectorSettings defaults = MonsterSelectorSettings.DEFAULT;
+        final double[] reductions = parseDoubles(options.remove("reductions"), defaults.reductionPercentage());
+        final double[] minimums = parseDoubles(options.remove("minimums"), defaults.minimumProbability());
+        final double[] decays = parseDoubles(options.remove("decays"), defaults.decayRate());
+        final int[] players = parseInts(options.remove("players"), 16);
+        final long seed = Long.parseLong(removeOrDefault(options, "seed", "0"));
+        final int runs = Integer.parseInt(removeOrDefault(options, "runs", "10000"));
+        final int waves = Integer.parseInt(removeOrDefault(options, "waves", "10"));
+        final int waveSize = Integer.parseInt(removeOrDefault(options, "wave-size", "20"));
+        final int rounds = Integer.parseInt(removeOrDefault(options, "rounds", "10"));
+        // A misspelled option would otherwise silently run the defaults
+        if (!options.isEmpty()) throw new IllegalArgumentException("Unknown options " + options.keySet() + ".");
+
+        final List<SimulationParameters> sweep = new ArrayList<>();
+        for (double reduction : reductions) {
+            for (double minimum : minimums) {
+                for (double decay : decays) {
+                    for (int playerCount : players) {
+                        final MonsterSelectorSettings settings = defaults.withReduction(reduction, minimum).withDecayRate(decay);
+                        sweep.add(new SimulationParameters(settings, playerCount));
+                    }
+                }
+            }
+        }
+
+        final Simulator simulator = new Simulator(ForkJoinPool.commonPool(), seed, runs, waves, waveSize, rounds);
+
+        for (SimulationParameters parameters : sweep) {
+            final long start = System.nanoTime();
+            final SimulationResult result = simulator.simulate(parameters);
+            final long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+            result.report().forEach(System.out::println);
+            System.out.println("  took " + elapsedMillis + "ms");
+        }
+    }
+
+    private static double @NotNull [] parseDoubles(@Nullable String list, double defaultValue) {
+        if (list == null) return new double[] { defaultValue };
+
+        final String[] values = list.split(",");
+        final double[] parsed = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            parsed[i] = Double.parseDouble(values[i].trim());
+        }
+        return parsed;
+    }
+
+    private static int @NotNull [] parseInts(@Nullable String list, int defaultValue) {
+        if (list == null) return new int[] { defaultValue };
+
+        final String[] values = list.split(",");
+        final int[] parsed = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            parsed[i] = Integer.parseInt(values[i].trim());
+        }
+        return parsed;
+    }
+
+    private static @NotNull String removeOrDefault(@NotNull Map<String, String> options, @NotNull String name,
+                                                   @NotNull String defaultValue) {
+        final String value = options.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    // </editor-fold>
+}
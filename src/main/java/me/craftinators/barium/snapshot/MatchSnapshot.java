@@ -0,0 +1,21 @@
+package me.craftinators.barium.snapshot;
+
+import com.google.common.collect.ImmutableMap;
+import me.craftinators.barium.core.Job;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The roster of a {@link me.craftinators.barium.core.Match} at one point in time, created by
+ * {@link me.craftinators.barium.core.Match#createSnapshot()}.
+ * @param matchId The {@link me.craftinators.barium.core.Match#getId() identifier} of the match
+ * @param rosterVersion The {@link me.craftinators.barium.core.Match#getRosterVersion() roster version} of the match
+ * @param roster The job of every player in the match, by the UUID of the player
+ */
+public record MatchSnapshot(long matchId, long rosterVersion, @NotNull Map<@NotNull UUID, @NotNull Job> roster) {
+    public MatchSnapshot {
+        roster = ImmutableMap.copyOf(roster);
+    }
+}
@@ -0,0 +1,24 @@
+package me.craftinators.barium.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import me.craftinators.barium.core.monster.Monster;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of a {@link me.craftinators.barium.core.monster.MonsterSelector} at one point in time, created by
+ * {@link me.craftinators.barium.core.monster.MonsterSelector#createSnapshot()}. The weights are kept as they are rather
+ * than replayed from the history, since the history is bounded and the weights are not.
+ * @param weights The unnormalized weight of each monster in the roster
+ * @param history The remembered previously selected monsters, from the oldest to the most recent
+ */
+public record SelectorSnapshot(@NotNull Map<@NotNull Monster, @NotNull Double> weights,
+                               @NotNull List<@NotNull Monster> history) {
+    public SelectorSnapshot {
+        weights = ImmutableMap.copyOf(weights);
+        history = ImmutableList.copyOf(history);
+    }
+}
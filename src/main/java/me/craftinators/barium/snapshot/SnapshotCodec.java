@@ -0,0 +1,345 @@
+package me.craftinators.barium.snapshot;
+
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.monster.Monster;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The binary layout of snapshots. Every snapshot starts with {@link #MAGIC}, the {@link #VERSION} and a kind, followed
+ * by the snapshot itself. UUIDs are written as two longs, counts, identifiers and ordinals as variable-length integers
+ * of 7 bits per byte, and weights as doubles. Monsters are written by name, since their identifiers change between
+ * restarts: a selector snapshot starts with every monster it refers to, and its history refers to them by position.
+ * <p>
+ * A match snapshot is either written in full, or as a delta against an earlier snapshot of the same match, which only
+ * contains the players that left and the players that joined or changed job since. Deltas are only valid against the
+ * exact snapshot they were written against, which is checked when they are read.
+ * <p>
+ * Snapshots are written to and read from a {@link ByteBuffer} directly, so they can be exchanged through a
+ * {@link java.nio.channels.FileChannel} or {@link java.nio.channels.SocketChannel} without any copies in between. Use
+ * the {@code maxEncodedSize} methods to size the buffer. Writing to a buffer that is too small throws a
+ * {@link BufferOverflowException}, reading a cut-off snapshot throws a {@link BufferUnderflowException}.
+ */
+public final class SnapshotCodec {
+    public static final int MAGIC = 0x4261534E; // "BaSN"
+    public static final int VERSION = 2;
+
+    private static final byte MATCH = 1;
+    private static final byte MATCH_DELTA = 2;
+    private static final byte SELECTOR = 3;
+
+    private static final int HEADER_BYTES = Integer.BYTES + 2;
+    private static final int MAX_VARINT_BYTES = 5;
+    private static final int MAX_VARLONG_BYTES = 10;
+    private static final int MAX_PLAYER_BYTES = Long.BYTES * 2 + MAX_VARINT_BYTES;
+    // A name of at most 64 characters has a length of a single byte
+    private static final int MAX_MONSTER_BYTES = 1 + Monster.MAX_NAME_LENGTH + Double.BYTES;
+
+    private static final Job[] JOBS = Job.values();
+
+    private SnapshotCodec() {
+        throw new UnsupportedOperationException("This class cannot be instantiated.");
+    }
+
+    // <editor-fold desc="Match">
+
+    /**
+     * Gets the most bytes writing a match snapshot in full can take.
+     * @param snapshot The snapshot to write
+     * @return The maximum size of the snapshot in bytes
+     */
+    public static int maxEncodedSize(@NotNull MatchSnapshot snapshot) {
+        return HEADER_BYTES + MAX_VARLONG_BYTES * 2 + MAX_VARINT_BYTES + snapshot.roster().size() * MAX_PLAYER_BYTES;
+    }
+
+    /**
+     * Gets the most bytes writing a match snapshot as a delta can take.
+     * @param base The earlier snapshot the delta is written against
+     * @param snapshot The snapshot to write
+     * @return The maximum size of the delta in bytes
+     */
+    public static int maxEncodedSize(@NotNull MatchSnapshot base, @NotNull MatchSnapshot snapshot) {
+        return HEADER_BYTES + MAX_VARLONG_BYTES * 3 + MAX_VARINT_BYTES * 2 + base.roster().size() * Long.BYTES * 2
+                + snapshot.roster().size() * MAX_PLAYER_BYTES;
+    }
+
+    /**
+     * Writes a match snapshot in full.
+     * @param snapshot The snapshot to write
+     * @param buffer The buffer to write to
+     * @throws BufferOverflowException If the buffer is too small
+     */
+    public static void encode(@NotNull MatchSnapshot snapshot, @NotNull ByteBuffer buffer) {
+        writeHeader(buffer, MATCH);
+        writeVarLong(buffer, snapshot.matchId());
+        writeVarLong(buffer, snapshot.rosterVersion());
+        writeVarInt(buffer, snapshot.roster().size());
+        for (Map.Entry<UUID, Job> entry : snapshot.roster().entrySet()) {
+            writePlayer(buffer, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Writes a match snapshot as a delta against an earlier snapshot of the same match. The delta can only be read
+     * with that earlier snapshot at hand.
+     * @param base The earlier snapshot
+     * @param snapshot The snapshot to write
+     * @param buffer The buffer to write to
+     * @throws IllegalArgumentException If the snapshots are of different matches
+     * @throws BufferOverflowException If the buffer is too small
+     */
+    public static void encodeDelta(@NotNull MatchSnapshot base, @NotNull MatchSnapshot snapshot, @NotNull ByteBuffer buffer) {
+        if (base.matchId() != snapshot.matchId()) throw new IllegalArgumentException("Snapshots must be of the same match.");
+
+        writeHeader(buffer, MATCH_DELTA);
+        writeVarLong(buffer, snapshot.matchId());
+        writeVarLong(buffer, base.rosterVersion());
+        writeVarLong(buffer, snapshot.rosterVersion());
+
+        // The counts are filled in afterwards, so that the players only have to be compared once
+        final Map<UUID, Job> roster = snapshot.roster();
+        final int removedCountPosition = buffer.position();
+        buffer.position(removedCountPosition + MAX_VARINT_BYTES);
+        int removed = 0;
+        for (UUID uuid : base.roster().keySet()) {
+            if (roster.containsKey(uuid)) continue;
+
+            writeUuid(buffer, uuid);
+            removed++;
+        }
+        writePaddedVarInt(buffer, removedCountPosition, removed);
+
+        final int changedCountPosition = buffer.position();
+        buffer.position(changedCountPosition + MAX_VARINT_BYTES);
+        int changed = 0;
+        for (Map.Entry<UUID, Job> entry : roster.entrySet()) {
+            if (base.roster().get(entry.getKey()) == entry.getValue()) continue;
+
+            writePlayer(buffer, entry.getKey(), entry.getValue());
+            changed++;
+        }
+        writePaddedVarInt(buffer, changedCountPosition, changed);
+    }
+
+    /**
+     * Reads a match snapshot, either written in full or as a delta.
+     * @param buffer The buffer to read from
+     * @param base The snapshot a delta was written against, or {@code null} if only full snapshots are expected
+     * @return The snapshot
+     * @throws IllegalArgumentException If the buffer does not contain a match snapshot of this version, or contains a
+     *                                  delta that was not written against the given snapshot
+     * @throws BufferUnderflowException If the snapshot is cut off
+     */
+    public static @NotNull MatchSnapshot decodeMatch(@NotNull ByteBuffer buffer, @Nullable MatchSnapshot base) {
+        final byte kind = readHeader(buffer);
+        if (kind == MATCH) {
+            final long matchId = readVarLong(buffer);
+            final long rosterVersion = readVarLong(buffer);
+            final int count = readCount(buffer, MAX_PLAYER_BYTES - MAX_VARINT_BYTES + 1);
+            final Map<UUID, Job> roster = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                roster.put(readUuid(buffer), readEnum(buffer, JOBS));
+            }
+            return new MatchSnapshot(matchId, rosterVersion, roster);
+        }
+        if (kind != MATCH_DELTA) throw new IllegalArgumentException("Not a match snapshot.");
+
+        final long matchId = readVarLong(buffer);
+        final long baseVersion = readVarLong(buffer);
+        if (base == null || base.matchId() != matchId || base.rosterVersion() != baseVersion) {
+            throw new IllegalArgumentException("Delta was not written against the given snapshot.");
+        }
+        final long rosterVersion = readVarLong(buffer);
+
+        final Map<UUID, Job> roster = new LinkedHashMap<>(base.roster());
+        final int removed = readCount(buffer, Long.BYTES * 2);
+        for (int i = 0; i < removed; i++) {
+            roster.remove(readUuid(buffer));
+        }
+
+        final int changed = readCount(buffer, MAX_PLAYER_BYTES - MAX_VARINT_BYTES + 1);
+        for (int i = 0; i < changed; i++) {
+            roster.put(readUuid(buffer), readEnum(buffer, JOBS));
+        }
+        return new MatchSnapshot(matchId, rosterVersion, roster);
+    }
+
+    // </editor-fold>
+
+    // <editor-fold desc="Selector">
+
+    /**
+     * Gets the most bytes writing a selector snapshot can take.
+     * @param snapshot The snapshot to write
+     * @return The maximum size of the snapshot in bytes
+     */
+    public static int maxEncodedSize(@NotNull SelectorSnapshot snapshot) {
+        return HEADER_BYTES + MAX_VARINT_BYTES * 2 + (snapshot.weights().size() + snapshot.history().size()) * MAX_MONSTER_BYTES
+                + snapshot.history().size() * MAX_VARINT_BYTES;
+    }
+
+    /**
+     * Writes a selector snapshot.
+     * @param snapshot The snapshot to write
+     * @param buffer The buffer to write to
+     * @throws BufferOverflowException If the buffer is too small
+     */
+    public static void encode(@NotNull SelectorSnapshot snapshot, @NotNull ByteBuffer buffer) {
+        writeHeader(buffer, SELECTOR);
+
+        // Monsters that are only in the history are written with a weight of 0
+        final Set<Monster> monsters = new LinkedHashSet<>(snapshot.weights().keySet());
+        monsters.addAll(snapshot.history());
+        final Map<Monster, Integer> positions = new HashMap<>(monsters.size() * 2);
+
+        writeVarInt(buffer, monsters.size());
+        for (Monster monster : monsters) {
+            positions.put(monster, positions.size());
+            writeName(buffer, monster.name());
+            buffer.putDouble(snapshot.weights().getOrDefault(monster, 0d));
+        }
+
+        writeVarInt(buffer, snapshot.history().size());
+        for (Monster monster : snapshot.history()) {
+            writeVarInt(buffer, positions.get(monster));
+        }
+    }
+
+    /**
+     * Reads a selector snapshot.
+     * @param buffer The buffer to read from
+     * @return The snapshot
+     * @throws IllegalArgumentException If the buffer does not contain a selector snapshot of this version, or it
+     *                                  contains an invalid monster name
+     * @throws BufferUnderflowException If the snapshot is cut off
+     */
+    public static @NotNull SelectorSnapshot decodeSelector(@NotNull ByteBuffer buffer) {
+        if (readHeader(buffer) != SELECTOR) throw new IllegalArgumentException("Not a selector snapshot.");
+
+        final Monster[] monsters = new Monster[readCount(buffer, 2 + Double.BYTES)];
+        final Map<Monster, Double> weights = new LinkedHashMap<>(monsters.length * 2);
+        for (int i = 0; i < monsters.length; i++) {
+            monsters[i] = Monster.named(readName(buffer));
+            final double weight = buffer.getDouble();
+            if (weights.containsKey(monsters[i])) throw new IllegalArgumentException("Duplicate monster " + monsters[i] + ".");
+            if (weight != 0d) weights.put(monsters[i], weight);
+        }
+
+        final int historySize = readCount(buffer, 1);
+        final Monster[] history = new Monster[historySize];
+        for (int i = 0; i < history.length; i++) {
+            final int position = readVarInt(buffer);
+            if (position >= monsters.length) throw new IllegalArgumentException("Unknown monster " + position + ".");
+            history[i] = monsters[position];
+        }
+        return new SelectorSnapshot(weights, Arrays.asList(history));
+    }
+
+    // </editor-fold>
+
+    private static void writeHeader(@NotNull ByteBuffer buffer, byte kind) {
+        buffer.putInt(MAGIC).put((byte) VERSION).put(kind);
+    }
+
+    private static byte readHeader(@NotNull ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) throw new IllegalArgumentException("Not a snapshot.");
+
+        final int version = buffer.get();
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported snapshot version " + version + ".");
+        return buffer.get();
+    }
+
+    private static void writePlayer(@NotNull ByteBuffer buffer, @NotNull UUID uuid, @NotNull Job job) {
+        writeUuid(buffer, uuid);
+        writeVarInt(buffer, job.ordinal());
+    }
+
+    private static void writeUuid(@NotNull ByteBuffer buffer, @NotNull UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static @NotNull UUID readUuid(@NotNull ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void writeName(@NotNull ByteBuffer buffer, @NotNull String name) {
+        writeVarInt(buffer, name.length());
+        buffer.put(name.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static @NotNull String readName(@NotNull ByteBuffer buffer) {
+        final int length = readVarInt(buffer);
+        if (length > Monster.MAX_NAME_LENGTH) throw new IllegalArgumentException("Monster name is too long.");
+
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static <E extends Enum<E>> @NotNull E readEnum(@NotNull ByteBuffer buffer, E @NotNull [] values) {
+        final int ordinal = readVarInt(buffer);
+        if (ordinal >= values.length) throw new IllegalArgumentException("Unknown ordinal " + ordinal + ".");
+        return values[ordinal];
+    }
+
+    // Rejects counts that cannot possibly fit in the rest of the buffer, before anything is allocated for them
+    private static int readCount(@NotNull ByteBuffer buffer, int minimumBytesEach) {
+        final int count = readVarInt(buffer);
+        if (count > buffer.remaining() / minimumBytesEach) throw new BufferUnderflowException();
+        return count;
+    }
+
+    private static void writeVarInt(@NotNull ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    // Writes a varint that always takes the maximum amount of bytes, so it can be filled in after what follows it
+    private static void writePaddedVarInt(@NotNull ByteBuffer buffer, int position, int value) {
+        for (int i = 0; i < MAX_VARINT_BYTES - 1; i++) {
+            buffer.put(position + i, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put(position + MAX_VARINT_BYTES - 1, (byte) value);
+    }
+
+    private static int readVarInt(@NotNull ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            final byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) throw new IllegalArgumentException("Negative count or ordinal.");
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long.");
+    }
+
+    private static void writeVarLong(@NotNull ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0L) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarLong(@NotNull ByteBuffer buffer) {
+        long value = 0L;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Varlong is too long.");
+    }
+}
@@ -0,0 +1,195 @@
+package me.craftinators.barium.load;
+
+import me.craftinators.barium.core.tick.SimulatedTickClock;
+import me.craftinators.barium.core.tick.TickEngine;
+import me.craftinators.barium.event.LoadEvents;
+import me.craftinators.barium.event.LoadLevelChanged;
+import me.craftinators.barium.event.Subscription;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadControllerTest {
+    // Samples every 20 ticks, and stays at a level for at least 200 ticks before lowering it
+    private static final LoadSettings SETTINGS = new LoadSettings(35d, 45d, 50d, 5d, 20, 200);
+
+    private final SimulatedTickTimeSource source = new SimulatedTickTimeSource(20d);
+    private final TickEngine engine = new TickEngine(new SimulatedTickClock(), Logger.getLogger("LoadControllerTest"));
+    private final LoadController controller = new LoadController(source, SETTINGS);
+    private final List<LoadLevelChanged> changes = new ArrayList<>();
+
+    private Subscription subscription;
+    private long tick = 0L;
+
+    @BeforeEach
+    void subscribe() {
+        subscription = LoadEvents.LEVEL_CHANGED.subscribe(change -> {
+            if (change.controller() == controller) changes.add(change);
+        });
+    }
+
+    @AfterEach
+    void unsubscribe() {
+        subscription.unsubscribe();
+        controller.uninstall();
+    }
+
+    @Test
+    void staysNormalBelowThreshold() {
+        source.set(34.9d);
+        run(1000);
+
+        assertEquals(LoadLevel.NORMAL, controller.getLevel());
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    void raisesLevelOnSampleReachingThreshold() {
+        source.set(35d);
+        run(1);
+        assertEquals(LoadLevel.ELEVATED, controller.getLevel());
+        assertEquals(35d, controller.getLastTickTime());
+    }
+
+    @Test
+    void raisesLevelOnlyOnSamples() {
+        run(1);
+        source.set(46d);
+        run(SETTINGS.sampleInterval() - 1);
+        assertEquals(LoadLevel.NORMAL, controller.getLevel());
+
+        run(1);
+        assertEquals(LoadLevel.HIGH, controller.getLevel());
+    }
+
+    @Test
+    void skipsLevelsWhenRaising() {
+        run(1);
+        source.set(52d);
+        run(SETTINGS.sampleInterval());
+
+        assertEquals(LoadLevel.CRITICAL, controller.getLevel());
+        assertEquals(1, changes.size());
+        assertEquals(LoadLevel.NORMAL, changes.getFirst().oldLevel());
+    }
+
+    @Test
+    void raisesLevelDuringMinimumDwell() {
+        source.set(36d);
+        run(1);
+        source.set(46d);
+        run(SETTINGS.sampleInterval());
+
+        assertEquals(LoadLevel.HIGH, controller.getLevel());
+    }
+
+    @Test
+    void keepsLevelWithinHysteresis() {
+        source.set(36d);
+        run(1);
+        // Below the threshold of 35, but not by more than the hysteresis of 5
+        source.set(30d);
+        run(1000);
+
+        assertEquals(LoadLevel.ELEVATED, controller.getLevel());
+        assertEquals(1, changes.size());
+    }
+
+    @Test
+    void ignoresTickTimeFlappingAroundThreshold() {
+        for (int i = 0; i < 50; i++) {
+            source.set(i % 2 == 0 ? 36d : 34d);
+            run(SETTINGS.sampleInterval());
+        }
+
+        assertEquals(LoadLevel.ELEVATED, controller.getLevel());
+        assertEquals(1, changes.size());
+    }
+
+    @Test
+    void keepsLevelForMinimumDwell() {
+        source.set(36d);
+        run(1);
+        source.set(10d);
+        run(SETTINGS.minimumTicksAtLevel() - 1);
+        assertEquals(LoadLevel.ELEVATED, controller.getLevel());
+
+        // The next sample is the first one past the minimum dwell
+        run(SETTINGS.sampleInterval());
+        assertEquals(LoadLevel.NORMAL, controller.getLevel());
+    }
+
+    @Test
+    void lowersOneLevelAtATime() {
+        source.set(52d);
+        run(1);
+        source.set(10d);
+
+        run(SETTINGS.minimumTicksAtLevel());
+        assertEquals(LoadLevel.HIGH, controller.getLevel());
+        run(SETTINGS.minimumTicksAtLevel());
+        assertEquals(LoadLevel.ELEVATED, controller.getLevel());
+        run(SETTINGS.minimumTicksAtLevel());
+        assertEquals(LoadLevel.NORMAL, controller.getLevel());
+
+        assertEquals(List.of(LoadLevel.CRITICAL, LoadLevel.HIGH, LoadLevel.ELEVATED, LoadLevel.NORMAL),
+                changes.stream().map(LoadLevelChanged::newLevel).toList());
+    }
+
+    @Test
+    void lowersOnlyBelowThresholdOfCurrentLevel() {
+        source.set(52d);
+        run(1);
+        // Below the thresholds of critical and high minus the hysteresis, but not of elevated
+        source.set(33d);
+        run(SETTINGS.minimumTicksAtLevel() * 10);
+
+        assertEquals(LoadLevel.ELEVATED, controller.getLevel());
+    }
+
+    @Test
+    void publishesLevelChanges() {
+        source.set(46d);
+        run(1);
+        source.set(10d);
+        run(SETTINGS.minimumTicksAtLevel());
+
+        assertEquals(2, changes.size());
+
+        final LoadLevelChanged raised = changes.get(0);
+        assertSame(controller, raised.controller());
+        assertEquals(LoadLevel.NORMAL, raised.oldLevel());
+        assertEquals(LoadLevel.HIGH, raised.newLevel());
+        assertEquals(46d, raised.averageTickTime());
+
+        final LoadLevelChanged lowered = changes.get(1);
+        assertEquals(LoadLevel.HIGH, lowered.oldLevel());
+        assertEquals(LoadLevel.ELEVATED, lowered.newLevel());
+        assertEquals(10d, lowered.averageTickTime());
+    }
+
+    @Test
+    void currentLevelFollowsInstalledController() {
+        source.set(46d);
+        run(1);
+        assertEquals(LoadLevel.NORMAL, LoadController.getCurrentLevel());
+
+        controller.install();
+        assertEquals(LoadLevel.HIGH, LoadController.getCurrentLevel());
+
+        controller.uninstall();
+        assertEquals(LoadLevel.NORMAL, LoadController.getCurrentLevel());
+    }
+
+    private void run(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            controller.tick(engine, tick++);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package me.craftinators.barium.packet;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.reflect.StructureModifier;
+import me.craftinators.barium.Barium;
+import me.craftinators.barium.core.Job;
+import me.craftinators.barium.core.Match;
+import me.craftinators.barium.core.WrappedPlayer;
+import me.craftinators.barium.core.tick.SimulatedTickClock;
+import me.craftinators.barium.core.tick.TickEngine;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PacketBroadcasterTest {
+    private final Map<UUID, Player> onlinePlayers = new HashMap<>();
+    private final FakeProtocolManager protocol = new FakeProtocolManager();
+    private final PacketBroadcaster broadcaster = new PacketBroadcaster(protocol.manager);
+
+    private Barium plugin;
+    private Match match;
+
+    @BeforeEach
+    void createMatch() {
+        final Server server = mock(Server.class);
+        when(server.getPlayer(any(UUID.class))).thenAnswer(invocation -> onlinePlayers.get(invocation.<UUID>getArgument(0)));
+        plugin = mock(Barium.class);
+        when(plugin.getServer()).thenReturn(server);
+        match = new Match(plugin) {};
+    }
+
+    @AfterEach
+    void removePlayers() {
+        for (WrappedPlayer player : match.getPlayers()) {
+            match.removePlayer(player);
+        }
+    }
+
+    // <editor-fold desc="Coalescing">
+
+    @Test
+    void replacesPacketQueuedWithSameKey() {
+        final Player viewer = join(Job.TEMPORARY_JOB_1);
+        final PacketContainer first = packet();
+        final PacketContainer second = packet();
+
+        broadcaster.queue(match, "bossbar", first);
+        broadcaster.queue(match, "bossbar", second);
+        assertEquals(1, broadcaster.getQueuedPacketCount());
+
+        assertEquals(1, broadcaster.flush());
+        assertEquals(List.of(second), protocol.received(viewer));
+        assertTrue(protocol.bundles.isEmpty());
+    }
+
+    @Test
+    void keepsPacketsWithSameKeyForDifferentAudiences() {
+        join(Job.TEMPORARY_JOB_1);
+        final Match other = new Match(plugin) {};
+
+        broadcaster.queue(match, "bossbar", packet());
+        broadcaster.queue(match, Job.TEMPORARY_JOB_1, "bossbar", packet());
+        broadcaster.queue(other, "bossbar", packet());
+
+        assertEquals(3, broadcaster.getQueuedPacketCount());
+    }
+
+    @Test
+    void keepsPositionOfReplacedPacket() {
+        final Player viewer = join(Job.TEMPORARY_JOB_1);
+        final PacketContainer first = packet();
+        final PacketContainer second = packet();
+        final PacketContainer replacement = packet();
+
+        broadcaster.queue(match, "first", first);
+        broadcaster.queue(match, "second", second);
+        broadcaster.queue(match, "first", replacement);
+        broadcaster.flush();
+
+        final PacketContainer bundle = protocol.received(viewer).getFirst();
+        assertEquals(List.of(replacement, second), protocol.bundles.get(bundle));
+    }
+
+    // </editor-fold>
+
+    // <editor-fold desc="Flushing">
+
+    @Test
+    void sendsQueuedPacketsOnlyOnFlush() {
+        final Player viewer = join(Job.TEMPORARY_JOB_1);
+        broadcaster.queue(match, "key", packet());
+
+        assertTrue(protocol.received(viewer).isEmpty());
+        broadcaster.flush();
+        assertEquals(1, protocol.received(viewer).size());
+    }
+
+    @Test
+    void emptiesQueueOnFlush() {
+        join(Job.TEMPORARY_JOB_1);
+        broadcaster.queue(match, "key", packet());
+        broadcaster.flush();
+
+        assertEquals(0, broadcaster.getQueuedPacketCount());
+        assertEquals(0, broadcaster.flush());
+        assertEquals(1, protocol.sent.size());
+    }
+
+    @Test
+    void bundlesSeveralPacketsForSameAudience() {
+        final Player first = join(Job.TEMPORARY_JOB_1);
+        final Player second = join(Job.TEMPORARY_JOB_2);
+        final PacketContainer health = packet();
+        final PacketContainer score = packet();
+
+        broadcaster.queue(match, "health", health);
+        broadcaster.queue(match, "score", score);
+
+        // One bundle per viewer, built once and shared between them
+        assertEquals(2, broadcaster.flush());
+        assertEquals(1, protocol.bundles.size());
+        final PacketContainer bundle = protocol.bundles.keySet().iterator().next();
+        assertEquals(List.of(health, score), protocol.bundles.get(bundle));
+        assertEquals(List.of(bundle), protocol.received(first));
+        assertEquals(List.of(bundle), protocol.received(second));
+    }
+
+    @Test
+    void sendsToPlayersInAudienceAtFlush() {
+        final Player early = join(Job.TEMPORARY_JOB_1);
+        final WrappedPlayer leaving = wrap(Job.TEMPORARY_JOB_1);
+        match.addPlayer(leaving);
+
+        broadcaster.queue(match, Job.TEMPORARY_JOB_1, "key", packet());
+        final Player late = join(Job.TEMPORARY_JOB_1);
+        match.removePlayer(leaving);
+        final Player otherJob = join(Job.TEMPORARY_JOB_2);
+
+        assertEquals(2, broadcaster.flush());
+        assertEquals(1, protocol.received(early).size());
+        assertEquals(1, protocol.received(late).size());
+        assertTrue(protocol.received(onlinePlayers.get(leaving.getUniqueId())).isEmpty());
+        assertTrue(protocol.received(otherJob).isEmpty());
+    }
+
+    @Test
+    void skipsOfflinePlayers() {
+        final Player online = join(Job.TEMPORARY_JOB_1);
+        final WrappedPlayer offline = wrap(Job.TEMPORARY_JOB_1);
+        onlinePlayers.remove(offline.getUniqueId());
+        match.addPlayer(offline);
+
+        broadcaster.queue(match, "key", packet());
+
+        assertEquals(1, broadcaster.flush());
+        assertEquals(List.of(online), protocol.sent.stream().map(Sent::player).toList());
+    }
+
+    @Test
+    void flushesOnTick() {
+        final Player viewer = join(Job.TEMPORARY_JOB_1);
+        broadcaster.queue(match, "key", packet());
+
+        // No load controller is installed, so every tick flushes
+        broadcaster.tick(new TickEngine(new SimulatedTickClock(), Logger.getLogger("PacketBroadcasterTest")), 1L);
+        assertEquals(1, protocol.received(viewer).size());
+    }
+
+    // </editor-fold>
+
+    // <editor-fold desc="Ordering">
+
+    @Test
+    void sendsAudiencesInOrderTheyWereFirstQueuedFor() {
+        final Player viewer = join(Job.TEMPORARY_JOB_1);
+        final PacketContainer jobPacket = packet();
+        final PacketContainer matchPacket = packet();
+        final PacketContainer replacement = packet();
+
+        broadcaster.queue(match, Job.TEMPORARY_JOB_1, "key", jobPacket);
+        broadcaster.queue(match, "key", matchPacket);
+        // Replacing a packet does not move its audience to the back
+        broadcaster.queue(match, Job.TEMPORARY_JOB_1, "key", replacement);
+        broadcaster.flush();
+
+        assertEquals(List.of(replacement, matchPacket), protocol.received(viewer));
+    }
+
+    @Test
+    void keepsOrderOfEveryViewer() {
+        final Player first = join(Job.TEMPORARY_JOB_1);
+        final Player second = join(Job.TEMPORARY_JOB_2);
+        final PacketContainer[] packets = new PacketContainer[5];
+        for (int i = 0; i < packets.length; i++) {
+            packets[i] = packet();
+            broadcaster.queue(match, Job.values()[i % 2], i, packets[i]);
+        }
+        final PacketContainer everyone = packet();
+        broadcaster.queue(match, "everyone", everyone);
+        broadcaster.flush();
+
+        final List<PacketContainer> toFirst = protocol.received(first);
+        assertEquals(2, toFirst.size());
+        assertEquals(List.of(packets[0], packets[2], packets[4]), protocol.bundles.get(toFirst.get(0)));
+        assertSame(everyone, toFirst.get(1));
+
+        final List<PacketContainer> toSecond = protocol.received(second);
+        assertEquals(2, toSecond.size());
+        assertEquals(List.of(packets[1], packets[3]), protocol.bundles.get(toSecond.get(0)));
+        assertSame(everyone, toSecond.get(1));
+    }
+
+    @Test
+    void queuesPacketsQueuedWhileFlushingForNextFlush() {
+        final Player viewer = join(Job.TEMPORARY_JOB_1);
+        final PacketContainer first = packet();
+        final PacketContainer second = packet();
+        protocol.onSend = () -> broadcaster.queue(match, "key", second);
+
+        broadcaster.queue(match, "key", first);
+        broadcaster.flush();
+        protocol.onSend = () -> {};
+        assertEquals(List.of(first), protocol.received(viewer));
+        assertEquals(1, broadcaster.getQueuedPacketCount());
+
+        broadcaster.flush();
+        assertEquals(List.of(first, second), protocol.received(viewer));
+    }
+
+    // </editor-fold>
+
+    private @NotNull Player join(@NotNull Job job) {
+        final WrappedPlayer player = wrap(job);
+        assertTrue(match.addPlayer(player));
+        return onlinePlayers.get(player.getUniqueId());
+    }
+
+    private @NotNull WrappedPlayer wrap(@NotNull Job job) {
+        final UUID uuid = UUID.randomUUID();
+        final Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(uuid);
+        onlinePlayers.put(uuid, player);
+        return new TestPlayer(plugin, uuid, job);
+    }
+
+    private static @NotNull PacketContainer packet() {
+        return mock(PacketContainer.class);
+    }
+
+    private record Sent(@NotNull Player player, @NotNull PacketContainer packet) {
+    }
+
+    /**
+     * A {@link ProtocolManager} that records the packets sent through it instead of sending them, and creates bundles
+     * that remember the packets written to them.
+     */
+    private static final class FakeProtocolManager {
+        private final List<Sent> sent = new ArrayList<>();
+        private final Map<PacketContainer, List<PacketContainer>> bundles = new LinkedHashMap<>();
+        private Runnable onSend = () -> {};
+
+        private final ProtocolManager manager = (ProtocolManager) Proxy.newProxyInstance(
+                ProtocolManager.class.getClassLoader(), new Class<?>[] { ProtocolManager.class },
+                (proxy, method, arguments) -> switch (method.getName()) {
+                    case "sendServerPacket" -> {
+                        sent.add(new Sent((Player) arguments[0], (PacketContainer) arguments[1]));
+                        onSend.run();
+                        yield null;
+                    }
+                    case "createPacket" -> {
+                        assertEquals(PacketType.Play.Server.BUNDLE, arguments[0]);
+                        yield createBundle();
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == arguments[0];
+                    case "toString" -> "FakeProtocolManager";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        private @NotNull List<PacketContainer> received(@NotNull Player player) {
+            return sent.stream().filter(send -> send.player == player).map(Sent::packet).toList();
+        }
+
+        @SuppressWarnings("unchecked")
+        private @NotNull PacketContainer createBundle() {
+            final PacketContainer bundle = mock(PacketContainer.class);
+            final StructureModifier<Iterable<PacketContainer>> modifier = mock(StructureModifier.class);
+            when(bundle.getPacketBundles()).thenReturn(modifier);
+            when(modifier.write(eq(0), any())).thenAnswer(invocation -> {
+                final List<PacketContainer> packets = new ArrayList<>();
+                invocation.<Iterable<PacketContainer>>getArgument(1).forEach(packets::add);
+                bundles.put(bundle, packets);
+                return modifier;
+            });
+            return bundle;
+        }
+    }
+
+    private static final class TestPlayer extends WrappedPlayer {
+        private TestPlayer(@NotNull Barium plugin, @NotNull UUID uuid, @NotNull Job job) {
+            super(plugin, uuid, job);
+        }
+    }
+}